@@ -0,0 +1,45 @@
+package com.example.rootdetector;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.concurrent.TimeoutException;
+final class AndroidDeviceProbe implements DeviceProbe {
+    static final AndroidDeviceProbe INSTANCE = new AndroidDeviceProbe();
+    private AndroidDeviceProbe() {
+    }
+    @Override
+    public boolean exists(String path) {
+        return new File(path).exists();
+    }
+    @Override
+    public String[] list(String directory) {
+        return new File(directory).list();
+    }
+    @Override
+    public byte[] read(String path, int maxBytes) throws IOException {
+        byte[] buffer = new byte[maxBytes];
+        int filled = 0;
+        try (FileInputStream in = new FileInputStream(path)) {
+            int n;
+            while (filled < maxBytes && (n = in.read(buffer, filled, maxBytes - filled)) >= 0) {
+                filled += n;
+            }
+        }
+        return filled == maxBytes ? buffer : Arrays.copyOf(buffer, filled);
+    }
+    @Override
+    public InputStream open(String path) throws IOException {
+        return new FileInputStream(path);
+    }
+    @Override
+    public ShellSession.Result exec(String command, long timeoutMs) throws IOException, InterruptedException, TimeoutException {
+        return ShellSession.shared().run(command, timeoutMs);
+    }
+    @Override
+    public String property(String key) {
+        PropertySnapshot.registerKeys(key);
+        return PropertySnapshot.current().get(key);
+    }
+}
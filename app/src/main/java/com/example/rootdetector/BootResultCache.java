@@ -0,0 +1,92 @@
+package com.example.rootdetector;
+import com.example.rootdetector.RootDetectorUtil.CheckResult;
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+final class BootResultCache {
+    private static final String BOOT_ID_PATH = "/proc/sys/kernel/random/boot_id";
+    private static final int MAGIC = 0x52424f54;
+    private static final int VERSION = 2;
+    private final File file;
+    private final String bootId;
+    private final FileSeal seal;
+    private final Map<String, CheckResult> results = new HashMap<>();
+    private boolean dirty;
+    BootResultCache(File file) {
+        this(file, readBootId(), FileSeal.keystore());
+    }
+    BootResultCache(File file, String bootId, FileSeal seal) {
+        this.file = file;
+        this.bootId = bootId;
+        this.seal = seal;
+        if (bootId != null && seal != null) {
+            try {
+                load();
+            } catch (IOException e) {
+                results.clear();
+                file.delete();
+            }
+        }
+    }
+    synchronized CheckResult get(String checkName) {
+        return results.get(checkName);
+    }
+    synchronized void put(CheckResult result) {
+        if (bootId == null || result.timedOut || result.inconclusive) {
+            return;
+        }
+        CheckResult previous = results.put(result.checkName, result);
+        dirty |= previous == null || previous.passed != result.passed || !previous.details.equals(result.details);
+    }
+    synchronized void save() throws IOException {
+        if (!dirty || seal == null) {
+            return;
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(MAGIC);
+            out.writeByte(VERSION);
+            out.writeUTF(bootId);
+            out.writeShort(results.size());
+            for (CheckResult result : results.values()) {
+                out.writeUTF(result.checkName);
+                out.writeBoolean(result.passed);
+                out.writeUTF(result.details);
+            }
+        }
+        seal.write(file, bytes.toByteArray());
+        dirty = false;
+    }
+    private void load() throws IOException {
+        byte[] payload = seal.read(file);
+        if (payload == null) {
+            return;
+        }
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload))) {
+            if (in.readInt() != MAGIC || in.readUnsignedByte() != VERSION || !bootId.equals(in.readUTF())) {
+                return;
+            }
+            int count = in.readUnsignedShort();
+            for (int i = 0; i < count; i++) {
+                String name = in.readUTF();
+                boolean passed = in.readBoolean();
+                results.put(name, new CheckResult(name, passed, in.readUTF()));
+            }
+        }
+    }
+    static String readBootId() {
+        try (BufferedReader r = new BufferedReader(new FileReader(BOOT_ID_PATH))) {
+            String id = r.readLine();
+            return id == null || id.trim().isEmpty() ? null : id.trim();
+        } catch (IOException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.rootdetector;
+import com.example.rootdetector.RootDetectorUtil.CheckResult;
+import java.util.List;
+final class CachedCheck implements RootCheck {
+    private final RootCheck delegate;
+    private final ResultCache cache;
+    private volatile boolean servedFromCache;
+    CachedCheck(RootCheck delegate, ResultCache cache) {
+        this.delegate = delegate;
+        this.cache = cache;
+    }
+    boolean servedFromCache() {
+        return servedFromCache;
+    }
+    @Override
+    public String name() {
+        return delegate.name();
+    }
+    @Override
+    public Cost cost() {
+        return cache.peek(delegate.name()) != null ? Cost.IN_MEMORY : delegate.cost();
+    }
+    @Override
+    public Volatility volatility() {
+        return delegate.volatility();
+    }
+    @Override
+    public List<String> dependencies() {
+        return delegate.dependencies();
+    }
+    @Override
+    public long timeoutMs() {
+        return delegate.timeoutMs();
+    }
+    @Override
+    public long ttlMs() {
+        return delegate.ttlMs();
+    }
+    @Override
+    public CheckResult run() throws Exception {
+        boolean[] hit = new boolean[1];
+        CheckResult result = cache.get(delegate, hit);
+        servedFromCache = hit[0];
+        return result;
+    }
+}
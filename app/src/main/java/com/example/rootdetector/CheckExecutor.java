@@ -0,0 +1,185 @@
+package com.example.rootdetector;
+import com.example.rootdetector.RootDetectorUtil.CheckResult;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+public class CheckExecutor {
+    private static final int MAX_THREADS = 4;
+    private static final long KEEP_ALIVE_SECONDS = 30;
+    private static volatile CheckExecutor shared;
+    private final ThreadPoolExecutor pool;
+    public enum Mode {
+        ALL,
+        FAIL_FAST
+    }
+    public CheckExecutor(int threads) {
+        pool = new ThreadPoolExecutor(threads, threads, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), DetectorExecutors.threadFactory("RootCheck-"));
+        pool.allowCoreThreadTimeOut(true);
+    }
+    public static CheckExecutor shared() {
+        if (shared == null) {
+            synchronized (CheckExecutor.class) {
+                if (shared == null) {
+                    int threads = Math.max(2, Math.min(MAX_THREADS, Runtime.getRuntime().availableProcessors()));
+                    shared = new CheckExecutor(threads);
+                }
+            }
+        }
+        return shared;
+    }
+    public List<CheckResult> execute(List<RootCheck> scheduled) {
+        return execute(scheduled, Mode.ALL);
+    }
+    public List<CheckResult> execute(List<RootCheck> scheduled, Mode mode) {
+        return execute(scheduled, mode, null);
+    }
+    public List<CheckResult> execute(List<RootCheck> scheduled, Mode mode, RootDetectorUtil.CheckResultListener listener) {
+        int count = scheduled.size();
+        long submittedAt = System.nanoTime();
+        ExecutorCompletionService<CheckResult> completion = new ExecutorCompletionService<>(pool);
+        Map<String, Future<CheckResult>> byName = new HashMap<>();
+        Map<Future<CheckResult>, Integer> indexOf = new HashMap<>();
+        TimedCall[] calls = new TimedCall[count];
+        long queueBudgetMs = 0;
+        for (int i = 0; i < count; i++) {
+            RootCheck check = scheduled.get(i);
+            List<Future<CheckResult>> dependencies = new ArrayList<>(check.dependencies().size());
+            for (String dependency : check.dependencies()) {
+                dependencies.add(byName.get(dependency));
+            }
+            calls[i] = new TimedCall(check, dependencies);
+            Future<CheckResult> future = completion.submit(calls[i]);
+            byName.put(check.name(), future);
+            indexOf.put(future, i);
+            queueBudgetMs += check.timeoutMs();
+        }
+        long queueDeadline = submittedAt + TimeUnit.MILLISECONDS.toNanos(queueBudgetMs);
+        CheckResult[] results = new CheckResult[count];
+        int outstanding = count;
+        try {
+            while (outstanding > 0) {
+                long now = System.nanoTime();
+                long earliest = queueDeadline;
+                for (int i = 0; i < count; i++) {
+                    if (results[i] == null) {
+                        long deadline = calls[i].deadline(now, queueDeadline);
+                        if (deadline - earliest < 0) {
+                            earliest = deadline;
+                        }
+                    }
+                }
+                Future<CheckResult> done = completion.poll(Math.max(0, earliest - now), TimeUnit.NANOSECONDS);
+                boolean failed = false;
+                if (done != null) {
+                    int i = indexOf.get(done);
+                    if (results[i] != null) {
+                        continue;
+                    }
+                    results[i] = collect(scheduled.get(i), done);
+                    outstanding--;
+                    failed = !results[i].passed;
+                    if (listener != null) {
+                        listener.onResult(results[i]);
+                    }
+                } else {
+                    now = System.nanoTime();
+                    for (int i = 0; i < count; i++) {
+                        if (results[i] == null && calls[i].isExpired(now, queueDeadline)) {
+                            RootCheck check = scheduled.get(i);
+                            byName.get(check.name()).cancel(true);
+                            String details = calls[i].startedAt != 0 ? "Timed out after " + check.timeoutMs() + " ms." : "Not started within " + queueBudgetMs + " ms.";
+                            results[i] = new CheckResult(check.name(), false, details, true, check.timeoutMs());
+                            outstanding--;
+                            failed = true;
+                            if (listener != null) {
+                                listener.onResult(results[i]);
+                            }
+                        }
+                    }
+                }
+                if (failed && mode == Mode.FAIL_FAST) {
+                    break;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        List<CheckResult> completed = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            if (results[i] != null) {
+                completed.add(results[i]);
+            } else {
+                byName.get(scheduled.get(i).name()).cancel(true);
+            }
+        }
+        return completed;
+    }
+    private static CheckResult collect(RootCheck check, Future<CheckResult> future) {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            return CheckResult.inconclusive(check.name(), "Could not check: " + cause.getMessage());
+        } catch (CancellationException | InterruptedException e) {
+            return CheckResult.inconclusive(check.name(), "Cancelled.");
+        }
+    }
+    public void runInBackground(Runnable task) {
+        pool.execute(task);
+    }
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+    private static final class TimedCall implements Callable<CheckResult> {
+        private final RootCheck check;
+        private final List<Future<CheckResult>> dependencies;
+        private volatile long startedAt;
+        TimedCall(RootCheck check, List<Future<CheckResult>> dependencies) {
+            this.check = check;
+            this.dependencies = dependencies;
+        }
+        @Override
+        public CheckResult call() throws Exception {
+            for (Future<CheckResult> dependency : dependencies) {
+                dependency.get();
+            }
+            long start = System.nanoTime();
+            startedAt = start == 0 ? 1 : start;
+            try {
+                CheckResult result = check.run();
+                return new CheckResult(result.checkName, result.passed, result.details, false, elapsedMs(start), result.inconclusive);
+            } catch (InterruptedException e) {
+                throw e;
+            } catch (Exception e) {
+                return new CheckResult(check.name(), false, "Could not check: " + e.getMessage(), false, elapsedMs(start), true);
+            }
+        }
+        private static long elapsedMs(long startNanos) {
+            return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+        }
+        long deadline(long now, long queueDeadline) {
+            long started = startedAt;
+            if (started != 0) {
+                return started + TimeUnit.MILLISECONDS.toNanos(check.timeoutMs());
+            }
+            long earliestIfStartedNow = now + TimeUnit.MILLISECONDS.toNanos(check.timeoutMs());
+            return queueDeadline - earliestIfStartedNow < 0 ? queueDeadline : earliestIfStartedNow;
+        }
+        boolean isExpired(long now, long queueDeadline) {
+            long started = startedAt;
+            if (started != 0) {
+                return started + TimeUnit.MILLISECONDS.toNanos(check.timeoutMs()) - now <= 0;
+            }
+            return queueDeadline - now <= 0;
+        }
+    }
+}
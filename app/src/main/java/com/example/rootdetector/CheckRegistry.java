@@ -0,0 +1,23 @@
+package com.example.rootdetector;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+public class CheckRegistry {
+    private final Map<String, RootCheck> checks = new LinkedHashMap<>();
+    public synchronized void register(RootCheck check) {
+        if (checks.containsKey(check.name())) {
+            throw new IllegalArgumentException("Check already registered: " + check.name());
+        }
+        checks.put(check.name(), check);
+    }
+    public synchronized boolean unregister(String checkName) {
+        return checks.remove(checkName) != null;
+    }
+    public synchronized RootCheck get(String checkName) {
+        return checks.get(checkName);
+    }
+    public synchronized List<RootCheck> checks() {
+        return new ArrayList<>(checks.values());
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.rootdetector;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+public final class CheckScheduler {
+    public interface Priority {
+        double score(RootCheck check);
+    }
+    public static final Priority STATIC_COST = check -> check.cost().weight;
+    private CheckScheduler() {
+    }
+    public static List<RootCheck> order(List<RootCheck> checks) {
+        return order(checks, STATIC_COST);
+    }
+    public static List<RootCheck> order(List<RootCheck> checks, Priority priority) {
+        final Map<String, Integer> position = new HashMap<>();
+        final Map<String, Double> scores = new HashMap<>();
+        for (int i = 0; i < checks.size(); i++) {
+            position.put(checks.get(i).name(), i);
+            scores.put(checks.get(i).name(), priority.score(checks.get(i)));
+        }
+        Map<String, List<RootCheck>> dependents = new HashMap<>();
+        Map<String, Integer> pending = new HashMap<>();
+        PriorityQueue<RootCheck> ready = new PriorityQueue<>(Math.max(1, checks.size()), (a, b) -> {
+            int byScore = Double.compare(scores.get(a.name()), scores.get(b.name()));
+            return byScore != 0 ? byScore : Integer.compare(position.get(a.name()), position.get(b.name()));
+        });
+        for (RootCheck check : checks) {
+            for (String dependency : check.dependencies()) {
+                if (!position.containsKey(dependency)) {
+                    throw new IllegalStateException("Check '" + check.name() + "' depends on unknown check '" + dependency + "'");
+                }
+                List<RootCheck> list = dependents.get(dependency);
+                if (list == null) {
+                    list = new ArrayList<>();
+                    dependents.put(dependency, list);
+                }
+                list.add(check);
+            }
+            pending.put(check.name(), check.dependencies().size());
+            if (check.dependencies().isEmpty()) {
+                ready.add(check);
+            }
+        }
+        List<RootCheck> ordered = new ArrayList<>(checks.size());
+        while (!ready.isEmpty()) {
+            RootCheck next = ready.poll();
+            ordered.add(next);
+            List<RootCheck> unblocked = dependents.get(next.name());
+            if (unblocked == null) {
+                continue;
+            }
+            for (RootCheck dependent : unblocked) {
+                int remaining = pending.get(dependent.name()) - 1;
+                pending.put(dependent.name(), remaining);
+                if (remaining == 0) {
+                    ready.add(dependent);
+                }
+            }
+        }
+        if (ordered.size() != checks.size()) {
+            throw new IllegalStateException("Check dependencies contain a cycle");
+        }
+        return ordered;
+    }
+}
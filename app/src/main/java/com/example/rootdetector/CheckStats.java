@@ -0,0 +1,95 @@
+package com.example.rootdetector;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+public class CheckStats implements CheckScheduler.Priority {
+    private static final int MAGIC = 0x52435354;
+    private static final int VERSION = 1;
+    private static final float DECAY = 0.9f;
+    private static final float LATENCY_ALPHA = 0.3f;
+    private static final double HALF_LIFE_MS = 7d * 24 * 60 * 60 * 1000;
+    private static final float PRIOR_WEIGHT = 2f;
+    private static final float PRIOR_FAILURE_RATE = 0.1f;
+    private static final float MIN_FAILURE_RATE = 0.001f;
+    private final Map<String, Entry> entries = new HashMap<>();
+    private static final class Entry {
+        float samples;
+        float failures;
+        float latencyMs = -1;
+    }
+    public synchronized void record(String checkName, long durationMs, boolean failed, boolean outcomeKnown) {
+        Entry entry = entries.get(checkName);
+        if (entry == null) {
+            entry = new Entry();
+            entries.put(checkName, entry);
+        }
+        entry.latencyMs = entry.latencyMs < 0 ? durationMs : entry.latencyMs + LATENCY_ALPHA * (durationMs - entry.latencyMs);
+        if (outcomeKnown) {
+            entry.samples = entry.samples * DECAY + 1;
+            entry.failures = entry.failures * DECAY + (failed ? 1 : 0);
+        }
+    }
+    public synchronized double expectedLatencyMs(RootCheck check) {
+        Entry entry = entries.get(check.name());
+        return entry == null || entry.latencyMs < 0 ? check.cost().weight : entry.latencyMs;
+    }
+    public synchronized double failureProbability(RootCheck check) {
+        Entry entry = entries.get(check.name());
+        float samples = entry == null ? 0 : entry.samples;
+        float failures = entry == null ? 0 : entry.failures;
+        return (failures + PRIOR_FAILURE_RATE * PRIOR_WEIGHT) / (samples + PRIOR_WEIGHT);
+    }
+    @Override
+    public double score(RootCheck check) {
+        return expectedLatencyMs(check) / Math.max(MIN_FAILURE_RATE, failureProbability(check));
+    }
+    public synchronized void load(File file) throws IOException {
+        if (!file.isFile()) {
+            return;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readUnsignedByte() != VERSION) {
+                return;
+            }
+            long age = Math.max(0, System.currentTimeMillis() - in.readLong());
+            float ageDecay = (float) Math.pow(0.5, age / HALF_LIFE_MS);
+            int count = in.readUnsignedShort();
+            Map<String, Entry> loaded = new HashMap<>();
+            for (int i = 0; i < count; i++) {
+                String name = in.readUTF();
+                Entry entry = new Entry();
+                entry.samples = in.readFloat() * ageDecay;
+                entry.failures = in.readFloat() * ageDecay;
+                entry.latencyMs = in.readFloat();
+                loaded.put(name, entry);
+            }
+            entries.clear();
+            entries.putAll(loaded);
+        }
+    }
+    public synchronized void save(File file) throws IOException {
+        File tmp = new File(file.getPath() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)))) {
+            out.writeInt(MAGIC);
+            out.writeByte(VERSION);
+            out.writeLong(System.currentTimeMillis());
+            out.writeShort(entries.size());
+            for (Map.Entry<String, Entry> e : entries.entrySet()) {
+                out.writeUTF(e.getKey());
+                out.writeFloat(e.getValue().samples);
+                out.writeFloat(e.getValue().failures);
+                out.writeFloat(e.getValue().latencyMs);
+            }
+        }
+        if (!tmp.renameTo(file)) {
+            throw new IOException("Could not replace " + file);
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.rootdetector;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+final class DeferredSave {
+    interface Save {
+        void save() throws IOException;
+    }
+    static final long DEFAULT_DELAY_MS = 1000;
+    private final Save save;
+    private final long delayMs;
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    private final Object writeLock = new Object();
+    DeferredSave(Save save) {
+        this(save, DEFAULT_DELAY_MS);
+    }
+    DeferredSave(Save save, long delayMs) {
+        this.save = save;
+        this.delayMs = delayMs;
+    }
+    void request() {
+        if (scheduled.compareAndSet(false, true)) {
+            DetectorExecutors.scheduler().schedule(() -> DetectorExecutors.coordinator().execute(this::run), delayMs, TimeUnit.MILLISECONDS);
+        }
+    }
+    private void run() {
+        scheduled.set(false);
+        synchronized (writeLock) {
+            try {
+                save.save();
+            } catch (IOException ignored) {
+            }
+        }
+    }
+}
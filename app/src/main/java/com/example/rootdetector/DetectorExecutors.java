@@ -0,0 +1,49 @@
+package com.example.rootdetector;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+public final class DetectorExecutors {
+    private static final int COORDINATOR_THREADS = 2;
+    private static final long KEEP_ALIVE_SECONDS = 30;
+    public static final Executor DIRECT = Runnable::run;
+    private static volatile ThreadPoolExecutor coordinator;
+    private static volatile ScheduledThreadPoolExecutor scheduler;
+    private DetectorExecutors() {
+    }
+    public static Executor coordinator() {
+        if (coordinator == null) {
+            synchronized (DetectorExecutors.class) {
+                if (coordinator == null) {
+                    ThreadPoolExecutor pool = new ThreadPoolExecutor(COORDINATOR_THREADS, COORDINATOR_THREADS, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), threadFactory("RootDetector-"));
+                    pool.allowCoreThreadTimeOut(true);
+                    coordinator = pool;
+                }
+            }
+        }
+        return coordinator;
+    }
+    public static ScheduledThreadPoolExecutor scheduler() {
+        if (scheduler == null) {
+            synchronized (DetectorExecutors.class) {
+                if (scheduler == null) {
+                    ScheduledThreadPoolExecutor pool = new ScheduledThreadPoolExecutor(1, threadFactory("RootDetectorTimer-"));
+                    pool.setRemoveOnCancelPolicy(true);
+                    scheduler = pool;
+                }
+            }
+        }
+        return scheduler;
+    }
+    static ThreadFactory threadFactory(final String prefix) {
+        final AtomicInteger count = new AtomicInteger();
+        return r -> {
+            Thread t = new Thread(r, prefix + count.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
+    }
+}
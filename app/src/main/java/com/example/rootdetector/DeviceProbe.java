@@ -0,0 +1,12 @@
+package com.example.rootdetector;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.TimeoutException;
+public interface DeviceProbe {
+    boolean exists(String path);
+    String[] list(String directory);
+    byte[] read(String path, int maxBytes) throws IOException;
+    InputStream open(String path) throws IOException;
+    ShellSession.Result exec(String command, long timeoutMs) throws IOException, InterruptedException, TimeoutException;
+    String property(String key);
+}
@@ -0,0 +1,15 @@
+package com.example.rootdetector;
+public final class DeviceProbes {
+    private static volatile DeviceProbe current = AndroidDeviceProbe.INSTANCE;
+    private DeviceProbes() {
+    }
+    public static DeviceProbe android() {
+        return AndroidDeviceProbe.INSTANCE;
+    }
+    public static DeviceProbe current() {
+        return current;
+    }
+    static void install(DeviceProbe probe) {
+        current = probe != null ? probe : AndroidDeviceProbe.INSTANCE;
+    }
+}
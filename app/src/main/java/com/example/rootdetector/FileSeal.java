@@ -0,0 +1,104 @@
+package com.example.rootdetector;
+import android.os.Build;
+import android.security.keystore.KeyGenParameterSpec;
+import android.security.keystore.KeyProperties;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.KeyStore;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import javax.crypto.KeyGenerator;
+import javax.crypto.Mac;
+final class FileSeal {
+    private static final String KEYSTORE = "AndroidKeyStore";
+    private static final String KEY_ALIAS = "root_detector_file_seal";
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final int MAC_LENGTH = 32;
+    private static final int MAX_FILE_BYTES = 1 << 20;
+    private static FileSeal keystore;
+    private static boolean keystoreResolved;
+    private final Key key;
+    FileSeal(Key key) {
+        this.key = key;
+    }
+    static synchronized FileSeal keystore() {
+        if (!keystoreResolved) {
+            keystoreResolved = true;
+            try {
+                Key key = keystoreKey();
+                keystore = key != null ? new FileSeal(key) : null;
+            } catch (GeneralSecurityException | IOException | RuntimeException e) {
+                keystore = null;
+            }
+        }
+        return keystore;
+    }
+    void write(File file, byte[] payload) throws IOException {
+        byte[] mac = mac(payload);
+        File tmp = new File(file.getPath() + ".tmp");
+        try (FileOutputStream out = new FileOutputStream(tmp)) {
+            out.write(payload);
+            out.write(mac);
+        }
+        if (!tmp.renameTo(file)) {
+            throw new IOException("Could not replace " + file);
+        }
+    }
+    byte[] read(File file) throws IOException {
+        if (!file.isFile()) {
+            return null;
+        }
+        byte[] sealed = readFully(file);
+        if (sealed.length < MAC_LENGTH) {
+            throw new IOException("Truncated sealed file " + file);
+        }
+        byte[] payload = Arrays.copyOf(sealed, sealed.length - MAC_LENGTH);
+        if (!MessageDigest.isEqual(mac(payload), Arrays.copyOfRange(sealed, payload.length, sealed.length))) {
+            throw new IOException("Seal mismatch in " + file);
+        }
+        return payload;
+    }
+    private byte[] mac(byte[] payload) throws IOException {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac.doFinal(payload);
+        } catch (GeneralSecurityException e) {
+            throw new IOException("Could not compute seal: " + e, e);
+        }
+    }
+    private static byte[] readFully(File file) throws IOException {
+        if (file.length() > MAX_FILE_BYTES) {
+            throw new IOException("Sealed file too large: " + file);
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream((int) file.length());
+        try (InputStream in = new FileInputStream(file)) {
+            byte[] buffer = new byte[4096];
+            int n;
+            while ((n = in.read(buffer)) > 0) {
+                bytes.write(buffer, 0, n);
+            }
+        }
+        return bytes.toByteArray();
+    }
+    private static Key keystoreKey() throws GeneralSecurityException, IOException {
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.M) {
+            return null;
+        }
+        KeyStore store = KeyStore.getInstance(KEYSTORE);
+        store.load(null);
+        Key key = store.getKey(KEY_ALIAS, null);
+        if (key != null) {
+            return key;
+        }
+        KeyGenerator generator = KeyGenerator.getInstance(KeyProperties.KEY_ALGORITHM_HMAC_SHA256, KEYSTORE);
+        generator.init(new KeyGenParameterSpec.Builder(KEY_ALIAS, KeyProperties.PURPOSE_SIGN).build());
+        return generator.generateKey();
+    }
+}
@@ -0,0 +1,183 @@
+package com.example.rootdetector;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+public final class InMemoryDeviceProbe implements DeviceProbe {
+    private static final int MAGIC = 0x52445052;
+    private static final int VERSION = 1;
+    private static final int COMMAND_NOT_FOUND = 127;
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    private final Map<String, byte[]> files = new HashMap<>();
+    private final Map<String, String[]> directories = new HashMap<>();
+    private final Set<String> present = new HashSet<>();
+    private final Set<String> denied = new HashSet<>();
+    private final Map<String, ShellSession.Result> commands = new HashMap<>();
+    private final Map<String, String> properties = new HashMap<>();
+    public synchronized InMemoryDeviceProbe file(String path, byte[] content) {
+        files.put(path, content.clone());
+        return this;
+    }
+    public InMemoryDeviceProbe file(String path, String content) {
+        return file(path, content.getBytes(UTF_8));
+    }
+    public synchronized InMemoryDeviceProbe directory(String path, String... names) {
+        directories.put(path, names.clone());
+        return this;
+    }
+    public synchronized InMemoryDeviceProbe exists(String path, boolean exists) {
+        if (exists) {
+            present.add(path);
+        } else {
+            present.remove(path);
+        }
+        return this;
+    }
+    public synchronized InMemoryDeviceProbe denied(String path) {
+        denied.add(path);
+        return this;
+    }
+    public synchronized InMemoryDeviceProbe command(String command, int exitCode, String... output) {
+        commands.put(command, new ShellSession.Result(exitCode, new ArrayList<>(Arrays.asList(output))));
+        return this;
+    }
+    public synchronized InMemoryDeviceProbe property(String key, String value) {
+        if (value == null) {
+            properties.remove(key);
+        } else {
+            properties.put(key, value);
+        }
+        return this;
+    }
+    @Override
+    public synchronized boolean exists(String path) {
+        return present.contains(path) || files.containsKey(path) || directories.containsKey(path) || denied.contains(path);
+    }
+    @Override
+    public synchronized String[] list(String directory) {
+        String[] names = directories.get(directory);
+        return names != null ? names.clone() : null;
+    }
+    @Override
+    public byte[] read(String path, int maxBytes) throws IOException {
+        byte[] content = content(path);
+        return content.length <= maxBytes ? content.clone() : Arrays.copyOf(content, maxBytes);
+    }
+    @Override
+    public InputStream open(String path) throws IOException {
+        return new ByteArrayInputStream(content(path));
+    }
+    @Override
+    public synchronized ShellSession.Result exec(String command, long timeoutMs) {
+        ShellSession.Result result = commands.get(command);
+        return result != null ? result : new ShellSession.Result(COMMAND_NOT_FOUND, new ArrayList<String>());
+    }
+    @Override
+    public synchronized String property(String key) {
+        return properties.get(key);
+    }
+    private synchronized byte[] content(String path) throws IOException {
+        if (denied.contains(path)) {
+            throw new IOException(path + ": Permission denied");
+        }
+        byte[] content = files.get(path);
+        if (content == null) {
+            throw new FileNotFoundException(path);
+        }
+        return content;
+    }
+    public synchronized void save(File file) throws IOException {
+        File tmp = new File(file.getPath() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)))) {
+            out.writeInt(MAGIC);
+            out.writeByte(VERSION);
+            out.writeInt(files.size());
+            for (Map.Entry<String, byte[]> entry : files.entrySet()) {
+                out.writeUTF(entry.getKey());
+                out.writeInt(entry.getValue().length);
+                out.write(entry.getValue());
+            }
+            out.writeInt(directories.size());
+            for (Map.Entry<String, String[]> entry : directories.entrySet()) {
+                out.writeUTF(entry.getKey());
+                writeStrings(out, Arrays.asList(entry.getValue()));
+            }
+            writeStrings(out, present);
+            writeStrings(out, denied);
+            out.writeInt(commands.size());
+            for (Map.Entry<String, ShellSession.Result> entry : commands.entrySet()) {
+                out.writeUTF(entry.getKey());
+                out.writeInt(entry.getValue().exitCode);
+                writeStrings(out, entry.getValue().output);
+            }
+            out.writeInt(properties.size());
+            for (Map.Entry<String, String> entry : properties.entrySet()) {
+                out.writeUTF(entry.getKey());
+                out.writeUTF(entry.getValue());
+            }
+        }
+        if (!tmp.renameTo(file)) {
+            throw new IOException("Could not replace " + file);
+        }
+    }
+    public static InMemoryDeviceProbe load(File file) throws IOException {
+        InMemoryDeviceProbe probe = new InMemoryDeviceProbe();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readUnsignedByte() != VERSION) {
+                throw new IOException("Not a probe recording: " + file);
+            }
+            for (int i = in.readInt(); i > 0; i--) {
+                String path = in.readUTF();
+                byte[] content = new byte[in.readInt()];
+                in.readFully(content);
+                probe.files.put(path, content);
+            }
+            for (int i = in.readInt(); i > 0; i--) {
+                String path = in.readUTF();
+                List<String> names = readStrings(in);
+                probe.directories.put(path, names.toArray(new String[names.size()]));
+            }
+            probe.present.addAll(readStrings(in));
+            probe.denied.addAll(readStrings(in));
+            for (int i = in.readInt(); i > 0; i--) {
+                String command = in.readUTF();
+                int exitCode = in.readInt();
+                probe.commands.put(command, new ShellSession.Result(exitCode, readStrings(in)));
+            }
+            for (int i = in.readInt(); i > 0; i--) {
+                probe.properties.put(in.readUTF(), in.readUTF());
+            }
+        }
+        return probe;
+    }
+    private static void writeStrings(DataOutputStream out, Collection<String> values) throws IOException {
+        out.writeInt(values.size());
+        for (String value : values) {
+            out.writeUTF(value);
+        }
+    }
+    private static List<String> readStrings(DataInputStream in) throws IOException {
+        int count = in.readInt();
+        List<String> values = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            values.add(in.readUTF());
+        }
+        return values;
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.rootdetector;
+import android.content.Context;
+public interface IntegrityBackend {
+    interface Callback {
+        void onToken(String token);
+        void onError(Exception e);
+    }
+    interface Factory {
+        IntegrityBackend create(Context context);
+    }
+    void requestToken(String nonce, Callback callback);
+}
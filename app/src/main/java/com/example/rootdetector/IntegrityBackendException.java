@@ -0,0 +1,8 @@
+package com.example.rootdetector;
+public class IntegrityBackendException extends Exception {
+    public final int errorCode;
+    public IntegrityBackendException(int errorCode, String message) {
+        super(message);
+        this.errorCode = errorCode;
+    }
+}
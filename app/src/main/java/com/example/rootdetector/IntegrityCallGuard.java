@@ -0,0 +1,188 @@
+package com.example.rootdetector;
+import com.google.android.play.core.integrity.IntegrityServiceException;
+import com.google.android.play.core.integrity.StandardIntegrityException;
+import com.google.android.play.core.integrity.model.IntegrityErrorCode;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+public final class IntegrityCallGuard {
+    interface Call {
+        void start(Attempt attempt);
+    }
+    interface Outcome {
+        void onSuccess(String token);
+        void onFailure(String reason);
+    }
+    public static final class Counters {
+        public final long successes;
+        public final long retries;
+        public final long transientFailures;
+        public final long permanentFailures;
+        public final long shortCircuited;
+        Counters(long successes, long retries, long transientFailures, long permanentFailures, long shortCircuited) {
+            this.successes = successes;
+            this.retries = retries;
+            this.transientFailures = transientFailures;
+            this.permanentFailures = permanentFailures;
+            this.shortCircuited = shortCircuited;
+        }
+    }
+    static final int NO_ERROR_CODE = Integer.MIN_VALUE;
+    private static final int MAX_ATTEMPTS = 3;
+    private static final long BASE_DELAY_MS = 200;
+    private static final long MAX_DELAY_MS = 2000;
+    private static final int FAILURE_THRESHOLD = 5;
+    private static final long OPEN_DURATION_MS = 30000;
+    private static final long PROBE_TIMEOUT_MS = 30000;
+    private static final long SHORT_CIRCUIT = -1;
+    private final Random random = new Random();
+    private final AtomicLong successes = new AtomicLong();
+    private final AtomicLong retries = new AtomicLong();
+    private final AtomicLong transientFailures = new AtomicLong();
+    private final AtomicLong permanentFailures = new AtomicLong();
+    private final AtomicLong shortCircuited = new AtomicLong();
+    private final long openDurationMs;
+    private final long probeTimeoutMs;
+    private int consecutiveFailures;
+    private long openUntilNanos;
+    private long probeSequence;
+    private long probeInFlight;
+    private long probeDeadlineNanos;
+    IntegrityCallGuard() {
+        this(OPEN_DURATION_MS, PROBE_TIMEOUT_MS);
+    }
+    IntegrityCallGuard(long openDurationMs, long probeTimeoutMs) {
+        this.openDurationMs = openDurationMs;
+        this.probeTimeoutMs = probeTimeoutMs;
+    }
+    final class Attempt {
+        private final Call call;
+        private final Outcome outcome;
+        private final int number;
+        private final long probe;
+        Attempt(Call call, Outcome outcome, int number, long probe) {
+            this.call = call;
+            this.outcome = outcome;
+            this.number = number;
+            this.probe = probe;
+        }
+        void start() {
+            try {
+                call.start(this);
+            } catch (RuntimeException e) {
+                failed(e);
+            }
+        }
+        void succeeded(String token) {
+            recordResponse();
+            successes.incrementAndGet();
+            outcome.onSuccess(token);
+        }
+        void failed(Exception e) {
+            int code = errorCode(e);
+            String reason = e.getMessage() + (code != NO_ERROR_CODE ? " (code " + code + ")" : "");
+            if (!isRetryable(e, code)) {
+                recordResponse();
+                permanentFailures.incrementAndGet();
+                outcome.onFailure(reason);
+                return;
+            }
+            transientFailures.incrementAndGet();
+            boolean open = recordFailure(probe);
+            if (open || number >= MAX_ATTEMPTS) {
+                outcome.onFailure(reason + " after " + number + " attempt(s)");
+                return;
+            }
+            retries.incrementAndGet();
+            final Attempt next = new Attempt(call, outcome, number + 1, 0);
+            DetectorExecutors.scheduler().schedule(next::start, backoffMs(number), TimeUnit.MILLISECONDS);
+        }
+    }
+    void execute(Call call, Outcome outcome) {
+        long probe = admit();
+        if (probe == SHORT_CIRCUIT) {
+            shortCircuited.incrementAndGet();
+            outcome.onFailure("Integrity API temporarily unavailable; failing fast.");
+            return;
+        }
+        new Attempt(call, outcome, 1, probe).start();
+    }
+    public Counters counters() {
+        return new Counters(successes.get(), retries.get(), transientFailures.get(), permanentFailures.get(), shortCircuited.get());
+    }
+    public synchronized boolean isOpen() {
+        if (consecutiveFailures < FAILURE_THRESHOLD) {
+            return false;
+        }
+        long now = System.nanoTime();
+        expireProbe(now);
+        return now - openUntilNanos < 0 || probeInFlight != 0;
+    }
+    private synchronized long admit() {
+        if (consecutiveFailures < FAILURE_THRESHOLD) {
+            return 0;
+        }
+        long now = System.nanoTime();
+        expireProbe(now);
+        if (now - openUntilNanos < 0 || probeInFlight != 0) {
+            return SHORT_CIRCUIT;
+        }
+        probeInFlight = ++probeSequence;
+        probeDeadlineNanos = now + TimeUnit.MILLISECONDS.toNanos(probeTimeoutMs);
+        return probeInFlight;
+    }
+    private void expireProbe(long now) {
+        if (probeInFlight != 0 && now - probeDeadlineNanos >= 0) {
+            probeInFlight = 0;
+            openUntilNanos = now + TimeUnit.MILLISECONDS.toNanos(openDurationMs);
+        }
+    }
+    private synchronized void recordResponse() {
+        consecutiveFailures = 0;
+        probeInFlight = 0;
+    }
+    private synchronized boolean recordFailure(long probe) {
+        if (probe != 0 && probe == probeInFlight) {
+            probeInFlight = 0;
+        }
+        consecutiveFailures++;
+        if (consecutiveFailures >= FAILURE_THRESHOLD) {
+            openUntilNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(openDurationMs);
+            return true;
+        }
+        return false;
+    }
+    private long backoffMs(int attempt) {
+        long cap = Math.min(MAX_DELAY_MS, BASE_DELAY_MS << (attempt - 1));
+        synchronized (random) {
+            return (long) (random.nextDouble() * cap);
+        }
+    }
+    static int errorCode(Exception e) {
+        if (e instanceof IntegrityServiceException) {
+            return ((IntegrityServiceException) e).getErrorCode();
+        }
+        if (e instanceof StandardIntegrityException) {
+            return ((StandardIntegrityException) e).getErrorCode();
+        }
+        if (e instanceof IntegrityBackendException) {
+            return ((IntegrityBackendException) e).errorCode;
+        }
+        return NO_ERROR_CODE;
+    }
+    static boolean isRetryable(Exception e, int code) {
+        switch (code) {
+            case IntegrityErrorCode.NETWORK_ERROR:
+            case IntegrityErrorCode.TOO_MANY_REQUESTS:
+            case IntegrityErrorCode.CANNOT_BIND_TO_SERVICE:
+            case IntegrityErrorCode.GOOGLE_SERVER_UNAVAILABLE:
+            case IntegrityErrorCode.CLIENT_TRANSIENT_ERROR:
+            case IntegrityErrorCode.INTERNAL_ERROR:
+                return true;
+            case NO_ERROR_CODE:
+                return !(e instanceof IllegalArgumentException);
+            default:
+                return false;
+        }
+    }
+}
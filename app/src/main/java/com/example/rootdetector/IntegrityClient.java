@@ -0,0 +1,223 @@
+package com.example.rootdetector;
+import com.example.rootdetector.RootDetectorUtil.CheckResult;
+import com.example.rootdetector.RootDetectorUtil.IntegrityCheckCallback;
+import com.example.rootdetector.RootDetectorUtil.IntegrityCheckResult;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+final class IntegrityClient {
+    interface Request {
+        void start(Round round);
+    }
+    interface Fallback {
+        void start(Round round);
+    }
+    final class Round {
+        private List<IntegrityCheckCallback> waiters = new ArrayList<>();
+        private volatile ScheduledFuture<?> deadline;
+        private Round() {
+        }
+        void deliverVerdict(CheckResult result) {
+            IntegrityClient.this.deliverVerdict(this, result);
+        }
+        void deliverUncached(CheckResult result) {
+            finish(this, result);
+        }
+    }
+    private static final int MAGIC = 0x52495654;
+    private static final int VERSION = 2;
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    private final Object lock = new Object();
+    private final DeferredSave persist = new DeferredSave(this::save);
+    private final IntegrityQuota quota;
+    private final Fallback fallback;
+    private final long requestTimeoutMs;
+    private Round inFlight;
+    private CheckResult verdict;
+    private long verdictAtMillis;
+    private long verdictExpiresAtMillis;
+    private File persistFile;
+    private FileSeal persistSeal;
+    private long persistTtlMs;
+    IntegrityClient(IntegrityQuota quota, Fallback fallback, long requestTimeoutMs) {
+        this.quota = quota;
+        this.fallback = fallback;
+        this.requestTimeoutMs = requestTimeoutMs;
+    }
+    void check(long maxAgeMs, IntegrityCheckCallback callback, Request request) {
+        CheckResult reusable = null;
+        Round started = null;
+        synchronized (lock) {
+            if (maxAgeMs > 0) {
+                reusable = freshVerdict(maxAgeMs);
+            }
+            if (reusable == null) {
+                if (inFlight == null) {
+                    inFlight = new Round();
+                    started = inFlight;
+                }
+                inFlight.waiters.add(callback);
+            }
+        }
+        if (started != null) {
+            start(started, request);
+            return;
+        }
+        quota.recordSaved();
+        if (reusable != null) {
+            callback.onFinished(reusable);
+        }
+    }
+    private void start(final Round round, Request request) {
+        round.deadline = DetectorExecutors.scheduler().schedule(() -> finish(round, failure("Integrity request did not finish within " + requestTimeoutMs + " ms.")), requestTimeoutMs, TimeUnit.MILLISECONDS);
+        try {
+            if (quota.tryAcquire()) {
+                request.start(round);
+                return;
+            }
+            CheckResult last = lastVerdict();
+            if (last != null) {
+                finish(round, withDetails(last, last.details + " (cached; integrity budget exhausted)"));
+            } else {
+                fallback.start(round);
+            }
+        } catch (RuntimeException e) {
+            finish(round, failure("Could not start integrity request: " + e));
+        }
+    }
+    private void deliverVerdict(Round round, CheckResult result) {
+        boolean persistent;
+        synchronized (lock) {
+            verdict = result;
+            verdictAtMillis = System.currentTimeMillis();
+            verdictExpiresAtMillis = persistFile != null ? verdictAtMillis + persistTtlMs : Long.MAX_VALUE;
+            persistent = persistFile != null;
+        }
+        if (persistent) {
+            persist.request();
+        }
+        finish(round, result);
+    }
+    CheckResult lastVerdict() {
+        synchronized (lock) {
+            return verdict;
+        }
+    }
+    void enablePersistence(File file, long ttlMs) {
+        enablePersistence(file, ttlMs, FileSeal.keystore());
+    }
+    void enablePersistence(File file, long ttlMs, FileSeal seal) {
+        synchronized (lock) {
+            persistFile = file;
+            persistTtlMs = ttlMs;
+            persistSeal = seal;
+            if (verdict == null && seal != null) {
+                try {
+                    load(file, seal);
+                } catch (IOException e) {
+                    file.delete();
+                }
+            }
+        }
+    }
+    private CheckResult freshVerdict(long maxAgeMs) {
+        long now = System.currentTimeMillis();
+        if (verdict == null || now < verdictAtMillis || now - verdictAtMillis > maxAgeMs || now >= verdictExpiresAtMillis) {
+            return null;
+        }
+        return verdict;
+    }
+    private void finish(Round round, CheckResult result) {
+        List<IntegrityCheckCallback> callbacks;
+        synchronized (lock) {
+            callbacks = round.waiters;
+            round.waiters = null;
+            if (inFlight == round) {
+                inFlight = null;
+            }
+        }
+        if (callbacks == null) {
+            return;
+        }
+        if (round.deadline != null) {
+            round.deadline.cancel(false);
+        }
+        for (IntegrityCheckCallback callback : callbacks) {
+            callback.onFinished(result);
+        }
+    }
+    private static CheckResult withDetails(CheckResult result, String details) {
+        if (result instanceof IntegrityCheckResult) {
+            IntegrityCheckResult integrity = (IntegrityCheckResult) result;
+            return new IntegrityCheckResult(integrity.checkName, integrity.passed, details, integrity.verdict, integrity.token);
+        }
+        return new CheckResult(result.checkName, result.passed, details);
+    }
+    private static CheckResult restore(String details, String token) {
+        return token != null ? RootDetectorUtil.verdictResult(token) : failure(details);
+    }
+    private static CheckResult failure(String details) {
+        return new CheckResult(RootDetectorUtil.INTEGRITY_CHECK_NAME, false, details);
+    }
+    private void save() throws IOException {
+        File file;
+        FileSeal seal;
+        CheckResult result;
+        long at;
+        long expiresAt;
+        synchronized (lock) {
+            file = persistFile;
+            seal = persistSeal;
+            result = verdict;
+            at = verdictAtMillis;
+            expiresAt = verdictExpiresAtMillis;
+        }
+        if (seal == null) {
+            return;
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(MAGIC);
+            out.writeByte(VERSION);
+            out.writeLong(at);
+            out.writeLong(expiresAt);
+            out.writeUTF(result.details);
+            String token = result instanceof IntegrityCheckResult ? ((IntegrityCheckResult) result).token : null;
+            byte[] tokenBytes = token != null ? token.getBytes(UTF_8) : new byte[0];
+            out.writeInt(tokenBytes.length);
+            out.write(tokenBytes);
+        }
+        seal.write(file, bytes.toByteArray());
+    }
+    private void load(File file, FileSeal seal) throws IOException {
+        byte[] payload = seal.read(file);
+        if (payload == null) {
+            return;
+        }
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload))) {
+            if (in.readInt() != MAGIC || in.readUnsignedByte() != VERSION) {
+                return;
+            }
+            long at = in.readLong();
+            long expiresAt = in.readLong();
+            long now = System.currentTimeMillis();
+            if (now < at || now >= expiresAt) {
+                return;
+            }
+            String details = in.readUTF();
+            byte[] tokenBytes = new byte[in.readInt()];
+            in.readFully(tokenBytes);
+            verdict = restore(details, tokenBytes.length > 0 ? new String(tokenBytes, UTF_8) : null);
+            verdictAtMillis = at;
+            verdictExpiresAtMillis = expiresAt;
+        }
+    }
+}
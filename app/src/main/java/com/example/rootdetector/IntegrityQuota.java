@@ -0,0 +1,143 @@
+package com.example.rootdetector;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+public final class IntegrityQuota {
+    public static final class Counters {
+        public final long made;
+        public final long saved;
+        public final long denied;
+        public final double tokensLeft;
+        Counters(long made, long saved, long denied, double tokensLeft) {
+            this.made = made;
+            this.saved = saved;
+            this.denied = denied;
+            this.tokensLeft = tokensLeft;
+        }
+    }
+    private static final int MAGIC = 0x52515441;
+    private static final int VERSION = 1;
+    private int capacity = -1;
+    private long refillIntervalMs;
+    private double tokens;
+    private long lastRefillMillis;
+    private long made;
+    private long saved;
+    private long denied;
+    private File file;
+    private final DeferredSave persist = new DeferredSave(this::save);
+    IntegrityQuota() {
+    }
+    synchronized void configure(File file, int capacity, long refillIntervalMs) {
+        if (capacity < 1 || refillIntervalMs < 1) {
+            throw new IllegalArgumentException("capacity and refillIntervalMs must be positive");
+        }
+        this.file = file;
+        this.capacity = capacity;
+        this.refillIntervalMs = refillIntervalMs;
+        this.tokens = capacity;
+        this.lastRefillMillis = System.currentTimeMillis();
+        try {
+            load(file);
+        } catch (IOException e) {
+            file.delete();
+        }
+    }
+    boolean tryAcquire() {
+        boolean acquired;
+        synchronized (this) {
+            if (capacity < 0) {
+                made++;
+                return true;
+            }
+            refill(System.currentTimeMillis());
+            acquired = tokens >= 1;
+            if (acquired) {
+                tokens -= 1;
+                made++;
+            } else {
+                denied++;
+            }
+        }
+        persistInBackground();
+        return acquired;
+    }
+    void recordSaved() {
+        synchronized (this) {
+            saved++;
+        }
+        persistInBackground();
+    }
+    public synchronized Counters counters() {
+        if (capacity >= 0) {
+            refill(System.currentTimeMillis());
+        }
+        return new Counters(made, saved, denied, capacity < 0 ? Double.POSITIVE_INFINITY : tokens);
+    }
+    private void refill(long now) {
+        if (now < lastRefillMillis) {
+            lastRefillMillis = now;
+            return;
+        }
+        tokens = Math.min(capacity, tokens + (double) (now - lastRefillMillis) / refillIntervalMs);
+        lastRefillMillis = now;
+    }
+    private void persistInBackground() {
+        synchronized (this) {
+            if (file == null) {
+                return;
+            }
+        }
+        persist.request();
+    }
+    private void save() throws IOException {
+        File target;
+        double tokensSnapshot;
+        long lastRefillSnapshot;
+        long madeSnapshot;
+        long savedSnapshot;
+        long deniedSnapshot;
+        synchronized (this) {
+            target = file;
+            tokensSnapshot = tokens;
+            lastRefillSnapshot = lastRefillMillis;
+            madeSnapshot = made;
+            savedSnapshot = saved;
+            deniedSnapshot = denied;
+        }
+        File tmp = new File(target.getPath() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)))) {
+            out.writeInt(MAGIC);
+            out.writeByte(VERSION);
+            out.writeDouble(tokensSnapshot);
+            out.writeLong(lastRefillSnapshot);
+            out.writeLong(madeSnapshot);
+            out.writeLong(savedSnapshot);
+            out.writeLong(deniedSnapshot);
+        }
+        if (!tmp.renameTo(target)) {
+            throw new IOException("Could not replace " + target);
+        }
+    }
+    private void load(File source) throws IOException {
+        if (!source.isFile()) {
+            return;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(source)))) {
+            if (in.readInt() != MAGIC || in.readUnsignedByte() != VERSION) {
+                return;
+            }
+            tokens = Math.min(capacity, in.readDouble());
+            lastRefillMillis = in.readLong();
+            made = in.readLong();
+            saved = in.readLong();
+            denied = in.readLong();
+            refill(System.currentTimeMillis());
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.rootdetector;
+final class IntegrityTokenParser {
+    private static final byte[] DECODE = new byte[128];
+    static {
+        for (int i = 0; i < DECODE.length; i++) {
+            DECODE[i] = -1;
+        }
+        String alphabet = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789";
+        for (int i = 0; i < alphabet.length(); i++) {
+            DECODE[alphabet.charAt(i)] = (byte) i;
+        }
+        DECODE['-'] = 62;
+        DECODE['+'] = 62;
+        DECODE['_'] = 63;
+        DECODE['/'] = 63;
+    }
+    private IntegrityTokenParser() {
+    }
+    static JsonCursor payload(String token) {
+        int first = token.indexOf('.');
+        if (first < 0) {
+            throw new IllegalArgumentException("Invalid Token Structure");
+        }
+        int second = token.indexOf('.', first + 1);
+        int stop = second < 0 ? token.length() : second;
+        byte[] buffer = new byte[stop - first - 1];
+        for (int i = 0; i < buffer.length; i++) {
+            buffer[i] = (byte) token.charAt(first + 1 + i);
+        }
+        return new JsonCursor(buffer, 0, decodeBase64Url(buffer, buffer.length));
+    }
+    static IntegrityVerdict parse(String token) {
+        return new IntegrityVerdict(payload(token));
+    }
+    static int decodeBase64Url(byte[] data, int length) {
+        int out = 0;
+        int bits = 0;
+        int accumulator = 0;
+        for (int i = 0; i < length; i++) {
+            int c = data[i];
+            if (c == '=') {
+                break;
+            }
+            int value = c >= 0 && c < DECODE.length ? DECODE[c] : -1;
+            if (value < 0) {
+                throw new IllegalArgumentException("Illegal base64url character at " + i);
+            }
+            accumulator = (accumulator << 6) | value;
+            bits += 6;
+            if (bits >= 8) {
+                bits -= 8;
+                data[out++] = (byte) (accumulator >> bits);
+            }
+        }
+        return out;
+    }
+}
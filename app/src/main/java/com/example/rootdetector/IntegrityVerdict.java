@@ -0,0 +1,233 @@
+package com.example.rootdetector;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+public final class IntegrityVerdict {
+    public enum DeviceRecognitionLabel {
+        MEETS_BASIC_INTEGRITY,
+        MEETS_DEVICE_INTEGRITY,
+        MEETS_STRONG_INTEGRITY,
+        MEETS_VIRTUAL_INTEGRITY
+    }
+    public enum AppRecognitionVerdict {
+        PLAY_RECOGNIZED,
+        UNRECOGNIZED_VERSION,
+        UNEVALUATED,
+        UNKNOWN
+    }
+    public enum AppLicensingVerdict {
+        LICENSED,
+        UNLICENSED,
+        UNEVALUATED,
+        UNKNOWN
+    }
+    public static final class DeviceIntegrity {
+        public final List<String> labels;
+        public final Set<DeviceRecognitionLabel> recognized;
+        DeviceIntegrity(List<String> labels) {
+            this.labels = Collections.unmodifiableList(labels);
+            Set<DeviceRecognitionLabel> set = EnumSet.noneOf(DeviceRecognitionLabel.class);
+            for (String label : labels) {
+                for (DeviceRecognitionLabel known : DeviceRecognitionLabel.values()) {
+                    if (known.name().equals(label)) {
+                        set.add(known);
+                    }
+                }
+            }
+            this.recognized = Collections.unmodifiableSet(set);
+        }
+        public boolean meets(DeviceRecognitionLabel label) {
+            return recognized.contains(label);
+        }
+    }
+    public static final class AppIntegrity {
+        public final AppRecognitionVerdict verdict;
+        public final String packageName;
+        public final List<String> certificateSha256Digest;
+        public final long versionCode;
+        AppIntegrity(AppRecognitionVerdict verdict, String packageName, List<String> certificateSha256Digest, long versionCode) {
+            this.verdict = verdict;
+            this.packageName = packageName;
+            this.certificateSha256Digest = Collections.unmodifiableList(certificateSha256Digest);
+            this.versionCode = versionCode;
+        }
+    }
+    public static final class AccountDetails {
+        public final AppLicensingVerdict licensingVerdict;
+        AccountDetails(AppLicensingVerdict licensingVerdict) {
+            this.licensingVerdict = licensingVerdict;
+        }
+    }
+    public static final class RequestDetails {
+        public final String requestPackageName;
+        public final String nonce;
+        public final String requestHash;
+        public final long timestampMillis;
+        RequestDetails(String requestPackageName, String nonce, String requestHash, long timestampMillis) {
+            this.requestPackageName = requestPackageName;
+            this.nonce = nonce;
+            this.requestHash = requestHash;
+            this.timestampMillis = timestampMillis;
+        }
+    }
+    private static final byte[] REQUEST_DETAILS = ProcLineReader.ascii("requestDetails");
+    private static final byte[] APP_INTEGRITY = ProcLineReader.ascii("appIntegrity");
+    private static final byte[] DEVICE_INTEGRITY = ProcLineReader.ascii("deviceIntegrity");
+    private static final byte[] ACCOUNT_DETAILS = ProcLineReader.ascii("accountDetails");
+    private static final byte[] DEVICE_RECOGNITION_VERDICT = ProcLineReader.ascii("deviceRecognitionVerdict");
+    private static final byte[] APP_RECOGNITION_VERDICT = ProcLineReader.ascii("appRecognitionVerdict");
+    private static final byte[] PACKAGE_NAME = ProcLineReader.ascii("packageName");
+    private static final byte[] CERTIFICATE_DIGEST = ProcLineReader.ascii("certificateSha256Digest");
+    private static final byte[] VERSION_CODE = ProcLineReader.ascii("versionCode");
+    private static final byte[] APP_LICENSING_VERDICT = ProcLineReader.ascii("appLicensingVerdict");
+    private static final byte[] REQUEST_PACKAGE_NAME = ProcLineReader.ascii("requestPackageName");
+    private static final byte[] NONCE = ProcLineReader.ascii("nonce");
+    private static final byte[] REQUEST_HASH = ProcLineReader.ascii("requestHash");
+    private static final byte[] TIMESTAMP_MILLIS = ProcLineReader.ascii("timestampMillis");
+    private static final int SECTION_REQUEST = 0;
+    private static final int SECTION_APP = 1;
+    private static final int SECTION_DEVICE = 2;
+    private static final int SECTION_ACCOUNT = 3;
+    private final byte[] payload;
+    private final int[] sectionStart = {-1, -1, -1, -1};
+    private final int[] sectionEnd = new int[4];
+    private RequestDetails requestDetails;
+    private AppIntegrity appIntegrity;
+    private DeviceIntegrity deviceIntegrity;
+    private AccountDetails accountDetails;
+    IntegrityVerdict(JsonCursor json) {
+        payload = json.data;
+        if (!json.beginObject()) {
+            return;
+        }
+        do {
+            json.readString();
+            json.expect(':');
+            int section = json.matchesToken(DEVICE_INTEGRITY) ? SECTION_DEVICE
+                    : json.matchesToken(APP_INTEGRITY) ? SECTION_APP
+                    : json.matchesToken(ACCOUNT_DETAILS) ? SECTION_ACCOUNT
+                    : json.matchesToken(REQUEST_DETAILS) ? SECTION_REQUEST : -1;
+            json.peek();
+            int start = json.pos;
+            json.skipValue();
+            if (section >= 0) {
+                sectionStart[section] = start;
+                sectionEnd[section] = json.pos;
+            }
+        } while (json.next('}'));
+    }
+    public synchronized DeviceIntegrity deviceIntegrity() {
+        if (deviceIntegrity == null) {
+            List<String> labels = new ArrayList<>(3);
+            JsonCursor json = section(SECTION_DEVICE);
+            if (json != null && json.beginObject()) {
+                do {
+                    if (json.nextKey(DEVICE_RECOGNITION_VERDICT)) {
+                        readStrings(json, labels);
+                    } else {
+                        json.skipValue();
+                    }
+                } while (json.next('}'));
+            }
+            deviceIntegrity = new DeviceIntegrity(labels);
+        }
+        return deviceIntegrity;
+    }
+    public synchronized AppIntegrity appIntegrity() {
+        if (appIntegrity == null) {
+            AppRecognitionVerdict verdict = AppRecognitionVerdict.UNKNOWN;
+            String packageName = null;
+            List<String> digests = new ArrayList<>(1);
+            long versionCode = 0;
+            JsonCursor json = section(SECTION_APP);
+            if (json != null && json.beginObject()) {
+                do {
+                    json.readString();
+                    json.expect(':');
+                    if (json.matchesToken(APP_RECOGNITION_VERDICT)) {
+                        verdict = parseEnum(AppRecognitionVerdict.class, json.stringValue(), AppRecognitionVerdict.UNKNOWN);
+                    } else if (json.matchesToken(PACKAGE_NAME)) {
+                        packageName = json.stringValue();
+                    } else if (json.matchesToken(CERTIFICATE_DIGEST)) {
+                        readStrings(json, digests);
+                    } else if (json.matchesToken(VERSION_CODE)) {
+                        versionCode = json.longValue();
+                    } else {
+                        json.skipValue();
+                    }
+                } while (json.next('}'));
+            }
+            appIntegrity = new AppIntegrity(verdict, packageName, digests, versionCode);
+        }
+        return appIntegrity;
+    }
+    public synchronized AccountDetails accountDetails() {
+        if (accountDetails == null) {
+            AppLicensingVerdict verdict = AppLicensingVerdict.UNKNOWN;
+            JsonCursor json = section(SECTION_ACCOUNT);
+            if (json != null && json.beginObject()) {
+                do {
+                    if (json.nextKey(APP_LICENSING_VERDICT)) {
+                        verdict = parseEnum(AppLicensingVerdict.class, json.stringValue(), AppLicensingVerdict.UNKNOWN);
+                    } else {
+                        json.skipValue();
+                    }
+                } while (json.next('}'));
+            }
+            accountDetails = new AccountDetails(verdict);
+        }
+        return accountDetails;
+    }
+    public synchronized RequestDetails requestDetails() {
+        if (requestDetails == null) {
+            String packageName = null;
+            String nonce = null;
+            String requestHash = null;
+            long timestamp = 0;
+            JsonCursor json = section(SECTION_REQUEST);
+            if (json != null && json.beginObject()) {
+                do {
+                    json.readString();
+                    json.expect(':');
+                    if (json.matchesToken(REQUEST_PACKAGE_NAME)) {
+                        packageName = json.stringValue();
+                    } else if (json.matchesToken(NONCE)) {
+                        nonce = json.stringValue();
+                    } else if (json.matchesToken(REQUEST_HASH)) {
+                        requestHash = json.stringValue();
+                    } else if (json.matchesToken(TIMESTAMP_MILLIS)) {
+                        timestamp = json.longValue();
+                    } else {
+                        json.skipValue();
+                    }
+                } while (json.next('}'));
+            }
+            requestDetails = new RequestDetails(packageName, nonce, requestHash, timestamp);
+        }
+        return requestDetails;
+    }
+    public long timestampMillis() {
+        return requestDetails().timestampMillis;
+    }
+    private JsonCursor section(int section) {
+        return sectionStart[section] < 0 ? null : new JsonCursor(payload, sectionStart[section], sectionEnd[section]);
+    }
+    private static void readStrings(JsonCursor json, List<String> into) {
+        if (json.peek() == '"') {
+            into.add(json.stringValue());
+        } else if (json.beginArray()) {
+            do {
+                into.add(json.stringValue());
+            } while (json.next(']'));
+        }
+    }
+    private static <E extends Enum<E>> E parseEnum(Class<E> type, String value, E fallback) {
+        try {
+            return Enum.valueOf(type, value);
+        } catch (IllegalArgumentException | NullPointerException e) {
+            return fallback;
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package com.example.rootdetector;
+import java.nio.charset.Charset;
+final class JsonCursor {
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    final byte[] data;
+    final int end;
+    int pos;
+    int tokenStart;
+    int tokenEnd;
+    JsonCursor(byte[] data, int start, int end) {
+        this.data = data;
+        this.pos = start;
+        this.end = end;
+    }
+    byte peek() {
+        skipWhitespace();
+        if (pos >= end) {
+            throw new IllegalArgumentException("Unexpected end of JSON");
+        }
+        return data[pos];
+    }
+    void expect(char c) {
+        if (peek() != c) {
+            throw new IllegalArgumentException("Expected '" + c + "' at " + pos);
+        }
+        pos++;
+    }
+    boolean beginObject() {
+        expect('{');
+        return peek() != '}' || closeContainer();
+    }
+    boolean beginArray() {
+        expect('[');
+        return peek() != ']' || closeContainer();
+    }
+    boolean next(char close) {
+        byte c = peek();
+        pos++;
+        if (c == ',') {
+            return true;
+        }
+        if (c != close) {
+            throw new IllegalArgumentException("Expected ',' or '" + close + "' at " + (pos - 1));
+        }
+        return false;
+    }
+    boolean nextKey(byte[] key) {
+        readString();
+        expect(':');
+        return matchesToken(key);
+    }
+    void readString() {
+        expect('"');
+        tokenStart = pos;
+        while (pos < end && data[pos] != '"') {
+            pos += data[pos] == '\\' ? 2 : 1;
+        }
+        if (pos >= end) {
+            throw new IllegalArgumentException("Unterminated string");
+        }
+        tokenEnd = pos++;
+    }
+    String stringValue() {
+        readString();
+        return tokenText();
+    }
+    long longValue() {
+        if (peek() == '"') {
+            return Long.parseLong(stringValue());
+        }
+        tokenStart = pos;
+        while (pos < end && (data[pos] == '-' || (data[pos] >= '0' && data[pos] <= '9'))) {
+            pos++;
+        }
+        tokenEnd = pos;
+        return Long.parseLong(tokenText());
+    }
+    boolean matchesToken(byte[] literal) {
+        if (tokenEnd - tokenStart != literal.length) {
+            return false;
+        }
+        for (int i = 0; i < literal.length; i++) {
+            if (data[tokenStart + i] != literal[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+    String tokenText() {
+        for (int i = tokenStart; i < tokenEnd; i++) {
+            if (data[i] == '\\') {
+                return unescape(tokenStart, tokenEnd);
+            }
+        }
+        return new String(data, tokenStart, tokenEnd - tokenStart, UTF_8);
+    }
+    void skipValue() {
+        byte c = peek();
+        if (c == '"') {
+            readString();
+        } else if (c == '{' || c == '[') {
+            int depth = 0;
+            do {
+                byte b = data[pos];
+                if (b == '"') {
+                    readString();
+                    continue;
+                }
+                if (b == '{' || b == '[') {
+                    depth++;
+                } else if (b == '}' || b == ']') {
+                    depth--;
+                }
+                pos++;
+            } while (depth > 0 && pos < end);
+        } else {
+            while (pos < end && data[pos] != ',' && data[pos] != '}' && data[pos] != ']') {
+                pos++;
+            }
+        }
+    }
+    private boolean closeContainer() {
+        pos++;
+        return false;
+    }
+    private void skipWhitespace() {
+        while (pos < end && (data[pos] == ' ' || data[pos] == '\n' || data[pos] == '\r' || data[pos] == '\t')) {
+            pos++;
+        }
+    }
+    private String unescape(int start, int stop) {
+        StringBuilder sb = new StringBuilder(stop - start);
+        for (int i = start; i < stop; i++) {
+            char c = (char) (data[i] & 0xff);
+            if (c != '\\') {
+                if (c < 0x80) {
+                    sb.append(c);
+                    continue;
+                }
+                int runEnd = i;
+                while (runEnd < stop && data[runEnd] != '\\' && (data[runEnd] & 0x80) != 0) {
+                    runEnd++;
+                }
+                sb.append(new String(data, i, runEnd - i, UTF_8));
+                i = runEnd - 1;
+                continue;
+            }
+            char e = (char) data[++i];
+            switch (e) {
+                case 'n': sb.append('\n'); break;
+                case 't': sb.append('\t'); break;
+                case 'r': sb.append('\r'); break;
+                case 'b': sb.append('\b'); break;
+                case 'f': sb.append('\f'); break;
+                case 'u':
+                    sb.append((char) Integer.parseInt(new String(data, i + 1, 4, UTF_8), 16));
+                    i += 4;
+                    break;
+                default: sb.append(e);
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.rootdetector;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+public final class MapsScanner {
+    public static final class Report {
+        public final List<String> libraries;
+        public final int writableExecutableRegions;
+        public final int anonymousExecutableRegions;
+        public final int regionCount;
+        public final long durationMicros;
+        Report(List<String> libraries, int writableExecutableRegions, int anonymousExecutableRegions, int regionCount, long durationMicros) {
+            this.libraries = Collections.unmodifiableList(libraries);
+            this.writableExecutableRegions = writableExecutableRegions;
+            this.anonymousExecutableRegions = anonymousExecutableRegions;
+            this.regionCount = regionCount;
+            this.durationMicros = durationMicros;
+        }
+        public boolean isClean() {
+            return libraries.isEmpty();
+        }
+    }
+    private static final String MAPS = "/proc/self/maps";
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    private static final int PERMS = 1;
+    private static final int PATH = 5;
+    private MapsScanner() {
+    }
+    public static Report scan() throws IOException {
+        return scan(MAPS);
+    }
+    static Report scan(String path) throws IOException {
+        long start = System.nanoTime();
+        final ProcLineReader reader = ProcLineReader.get();
+        final Set<String> libraries = new LinkedHashSet<>();
+        final int[] counts = new int[3];
+        reader.read(path, (line, s, e) -> {
+            counts[0]++;
+            int fields = reader.split(line, s, e);
+            if (fields <= PERMS || reader.fieldEnds[PERMS] - reader.fieldStarts[PERMS] < 3) {
+                return true;
+            }
+            int perms = reader.fieldStarts[PERMS];
+            boolean executable = line[perms + 2] == 'x';
+            if (fields <= PATH) {
+                if (executable) {
+                    counts[2]++;
+                    if (line[perms + 1] == 'w') {
+                        counts[1]++;
+                    }
+                }
+                return true;
+            }
+            int pathStart = reader.fieldStarts[PATH];
+            if (executable && pathStart + 1 < e && line[pathStart] == '[' && line[pathStart + 1] == 'a') {
+                counts[2]++;
+                if (line[perms + 1] == 'w') {
+                    counts[1]++;
+                }
+            }
+            if (Signatures.HOOKING_LIBRARIES.firstMatch(line, pathStart, e) >= 0) {
+                libraries.add(new String(line, pathStart, e - pathStart, UTF_8));
+            }
+            return true;
+        });
+        return new Report(new ArrayList<>(libraries), counts[1], counts[2], counts[0], TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start));
+    }
+}
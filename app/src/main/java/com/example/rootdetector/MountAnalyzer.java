@@ -0,0 +1,119 @@
+package com.example.rootdetector;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+public final class MountAnalyzer {
+    public static final class Report {
+        public final List<String> findings;
+        public final String source;
+        public final int mountCount;
+        public final long durationMicros;
+        Report(List<String> findings, String source, int mountCount, long durationMicros) {
+            this.findings = Collections.unmodifiableList(findings);
+            this.source = source;
+            this.mountCount = mountCount;
+            this.durationMicros = durationMicros;
+        }
+    }
+    private static final String MOUNTINFO = "/proc/self/mountinfo";
+    private static final String MOUNTS = "/proc/self/mounts";
+    private static final byte[][] WATCHED = {ProcLineReader.ascii("/system"), ProcLineReader.ascii("/vendor"), ProcLineReader.ascii("/sbin")};
+    private static final byte[][] SUSPICIOUS_TYPES = {ProcLineReader.ascii("tmpfs"), ProcLineReader.ascii("overlay")};
+    private static final byte[] ADB_ROOT = ProcLineReader.ascii("/adb");
+    private static final byte[] SEPARATOR = ProcLineReader.ascii("-");
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    private MountAnalyzer() {
+    }
+    public static Report analyze() throws IOException {
+        return analyze(MOUNTINFO, MOUNTS);
+    }
+    static Report analyze(String mountInfoPath, String mountsPath) throws IOException {
+        long start = System.nanoTime();
+        final ProcLineReader reader = ProcLineReader.get();
+        final List<String> findings = new ArrayList<>();
+        final int[] mounts = new int[1];
+        String source = mountInfoPath;
+        try {
+            reader.read(mountInfoPath, (line, s, e) -> {
+                mounts[0]++;
+                inspectMountInfo(reader, line, s, e, findings);
+                return true;
+            });
+        } catch (IOException unreadable) {
+            source = mountsPath;
+            mounts[0] = 0;
+            findings.clear();
+            reader.read(mountsPath, (line, s, e) -> {
+                mounts[0]++;
+                inspectMounts(reader, line, s, e, findings);
+                return true;
+            });
+        }
+        return new Report(findings, source, mounts[0], TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start));
+    }
+    private static void inspectMountInfo(ProcLineReader reader, byte[] line, int start, int end, List<String> findings) {
+        int count = reader.split(line, start, end);
+        int separator = -1;
+        for (int i = 6; i < count; i++) {
+            if (ProcLineReader.equals(line, reader.fieldStarts[i], reader.fieldEnds[i], SEPARATOR)) {
+                separator = i;
+                break;
+            }
+        }
+        if (separator < 0 || separator + 2 >= count) {
+            return;
+        }
+        int mountPoint = 4;
+        if (!isWatched(line, reader.fieldStarts[mountPoint], reader.fieldEnds[mountPoint])) {
+            return;
+        }
+        int type = separator + 1;
+        int device = separator + 2;
+        int root = 3;
+        if (isSuspiciousType(line, reader.fieldStarts[type], reader.fieldEnds[type])
+                || Signatures.MOUNT_SOURCES.firstMatch(line, start, end) >= 0
+                || ProcLineReader.isPathUnder(line, reader.fieldStarts[root], reader.fieldEnds[root], ADB_ROOT)) {
+            findings.add(describe(line, reader, type, mountPoint, device));
+        }
+    }
+    private static void inspectMounts(ProcLineReader reader, byte[] line, int start, int end, List<String> findings) {
+        int count = reader.split(line, start, end);
+        if (count < 3) {
+            return;
+        }
+        int device = 0;
+        int mountPoint = 1;
+        int type = 2;
+        if (!isWatched(line, reader.fieldStarts[mountPoint], reader.fieldEnds[mountPoint])) {
+            return;
+        }
+        if (isSuspiciousType(line, reader.fieldStarts[type], reader.fieldEnds[type]) || Signatures.MOUNT_SOURCES.firstMatch(line, start, end) >= 0) {
+            findings.add(describe(line, reader, type, mountPoint, device));
+        }
+    }
+    private static boolean isWatched(byte[] line, int start, int end) {
+        for (byte[] prefix : WATCHED) {
+            if (ProcLineReader.isPathUnder(line, start, end, prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+    private static boolean isSuspiciousType(byte[] line, int start, int end) {
+        for (byte[] type : SUSPICIOUS_TYPES) {
+            if (ProcLineReader.equals(line, start, end, type)) {
+                return true;
+            }
+        }
+        return false;
+    }
+    private static String describe(byte[] line, ProcLineReader reader, int type, int mountPoint, int device) {
+        return text(line, reader, type) + " on " + text(line, reader, mountPoint) + " (from " + text(line, reader, device) + ")";
+    }
+    private static String text(byte[] line, ProcLineReader reader, int field) {
+        return new String(line, reader.fieldStarts[field], reader.fieldEnds[field] - reader.fieldStarts[field], UTF_8);
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.rootdetector;
+import android.content.Context;
+import com.google.android.play.core.integrity.IntegrityManager;
+import com.google.android.play.core.integrity.IntegrityManagerFactory;
+import com.google.android.play.core.integrity.IntegrityTokenRequest;
+final class PlayIntegrityBackend implements IntegrityBackend {
+    static final Factory FACTORY = PlayIntegrityBackend::new;
+    private final IntegrityManager integrityManager;
+    PlayIntegrityBackend(Context context) {
+        integrityManager = IntegrityManagerFactory.create(context);
+    }
+    @Override
+    public void requestToken(String nonce, final Callback callback) {
+        integrityManager.requestIntegrityToken(IntegrityTokenRequest.builder().setNonce(nonce).build())
+            .addOnSuccessListener(response -> callback.onToken(response.token()))
+            .addOnFailureListener(callback::onError);
+    }
+}
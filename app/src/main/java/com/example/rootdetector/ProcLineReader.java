@@ -0,0 +1,100 @@
+package com.example.rootdetector;
+import java.io.IOException;
+import java.io.InputStream;
+final class ProcLineReader {
+    interface LineHandler {
+        boolean onLine(byte[] line, int start, int end);
+    }
+    private static final int INITIAL_BUFFER = 16 * 1024;
+    private static final ThreadLocal<ProcLineReader> READERS = new ThreadLocal<ProcLineReader>() {
+        @Override
+        protected ProcLineReader initialValue() {
+            return new ProcLineReader();
+        }
+    };
+    private byte[] buffer = new byte[INITIAL_BUFFER];
+    final int[] fieldStarts = new int[32];
+    final int[] fieldEnds = new int[32];
+    private ProcLineReader() {
+    }
+    static ProcLineReader get() {
+        return READERS.get();
+    }
+    void read(String path, LineHandler handler) throws IOException {
+        try (InputStream in = DeviceProbes.current().open(path)) {
+            int filled = 0;
+            int n;
+            while ((n = in.read(buffer, filled, buffer.length - filled)) >= 0) {
+                filled += n;
+                int lineStart = 0;
+                for (int i = filled - n; i < filled; i++) {
+                    if (buffer[i] == '\n') {
+                        if (!handler.onLine(buffer, lineStart, i)) {
+                            return;
+                        }
+                        lineStart = i + 1;
+                    }
+                }
+                filled -= lineStart;
+                if (lineStart > 0 && filled > 0) {
+                    System.arraycopy(buffer, lineStart, buffer, 0, filled);
+                } else if (filled == buffer.length) {
+                    byte[] grown = new byte[buffer.length * 2];
+                    System.arraycopy(buffer, 0, grown, 0, filled);
+                    buffer = grown;
+                }
+            }
+            if (filled > 0) {
+                handler.onLine(buffer, 0, filled);
+            }
+        }
+    }
+    int split(byte[] line, int start, int end) {
+        int count = 0;
+        int i = start;
+        while (i < end && count < fieldStarts.length) {
+            while (i < end && line[i] == ' ') {
+                i++;
+            }
+            if (i == end) {
+                break;
+            }
+            fieldStarts[count] = i;
+            while (i < end && line[i] != ' ') {
+                i++;
+            }
+            fieldEnds[count++] = i;
+        }
+        return count;
+    }
+    static boolean equals(byte[] line, int start, int end, byte[] literal) {
+        if (end - start != literal.length) {
+            return false;
+        }
+        for (int i = 0; i < literal.length; i++) {
+            if (line[start + i] != literal[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+    static boolean isPathUnder(byte[] line, int start, int end, byte[] prefix) {
+        int length = end - start;
+        if (length < prefix.length) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length; i++) {
+            if (line[start + i] != prefix[i]) {
+                return false;
+            }
+        }
+        return length == prefix.length || line[start + prefix.length] == '/';
+    }
+    static byte[] ascii(String s) {
+        byte[] bytes = new byte[s.length()];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) s.charAt(i);
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,174 @@
+package com.example.rootdetector;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+public final class PropertyArea {
+    public static final File DEFAULT_LOCATION = new File("/dev/__properties__");
+    private static final int AREA_MAGIC = 0x504f5250;
+    private static final int AREA_VERSION = 0xfc6ed0ab;
+    private static final int SERIAL_OFFSET = 4;
+    private static final int HEADER_SIZE = 128;
+    private static final int NODE_PROP = 4;
+    private static final int NODE_LEFT = 8;
+    private static final int NODE_RIGHT = 12;
+    private static final int NODE_CHILDREN = 16;
+    private static final int NODE_NAME = 20;
+    private static final int INFO_VALUE = 4;
+    private static final int PROP_VALUE_MAX = 92;
+    private static final int INFO_NAME = INFO_VALUE + PROP_VALUE_MAX;
+    private static final int LONG_FLAG = 1 << 16;
+    private static final int LONG_OFFSET = INFO_VALUE + 56;
+    private static final int MAX_READ_ATTEMPTS = 3;
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    public final File file;
+    public final Map<String, String> properties;
+    private final ByteBuffer area;
+    private final int serial;
+    private PropertyArea(File file, ByteBuffer area, int serial, Map<String, String> properties) {
+        this.file = file;
+        this.area = area;
+        this.serial = serial;
+        this.properties = Collections.unmodifiableMap(properties);
+    }
+    public static PropertyArea parse(File file) throws IOException {
+        ByteBuffer area;
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r"); FileChannel channel = raf.getChannel()) {
+            area = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()).order(ByteOrder.LITTLE_ENDIAN);
+        }
+        if (area.capacity() < HEADER_SIZE || area.getInt(8) != AREA_MAGIC || area.getInt(12) != AREA_VERSION) {
+            throw new IOException("Not a property area: " + file);
+        }
+        int dataSize = Math.min(area.getInt(0), area.capacity() - HEADER_SIZE);
+        for (int attempt = 0; ; attempt++) {
+            int serial = area.getInt(SERIAL_OFFSET);
+            Map<String, String> properties = walk(area, dataSize);
+            if (area.getInt(SERIAL_OFFSET) == serial || attempt + 1 >= MAX_READ_ATTEMPTS) {
+                return new PropertyArea(file, area, serial, properties);
+            }
+        }
+    }
+    public static Snapshot parseAll(File location) {
+        List<PropertyArea> areas = new ArrayList<>();
+        File[] files = location.isDirectory() ? location.listFiles() : new File[]{location};
+        if (files != null) {
+            for (File file : files) {
+                try {
+                    areas.add(parse(file));
+                } catch (IOException | RuntimeException ignored) {
+                }
+            }
+        }
+        return new Snapshot(areas);
+    }
+    public int serial() {
+        return serial;
+    }
+    public boolean isStale() {
+        return area.getInt(SERIAL_OFFSET) != serial;
+    }
+    private static Map<String, String> walk(ByteBuffer area, int dataSize) {
+        Map<String, String> properties = new HashMap<>();
+        int[] stack = new int[64];
+        int depth = 0;
+        stack[depth++] = 0;
+        int visited = 0;
+        int maxNodes = dataSize / NODE_NAME;
+        while (depth > 0 && visited++ < maxNodes) {
+            int node = stack[--depth];
+            if (node < 0 || node + NODE_NAME > dataSize) {
+                continue;
+            }
+            int base = HEADER_SIZE + node;
+            int prop = area.getInt(base + NODE_PROP);
+            if (prop > 0 && prop + INFO_NAME < dataSize) {
+                readProperty(area, HEADER_SIZE + prop, HEADER_SIZE + dataSize, properties);
+            }
+            if (depth + 3 > stack.length) {
+                int[] grown = new int[stack.length * 2];
+                System.arraycopy(stack, 0, grown, 0, depth);
+                stack = grown;
+            }
+            int left = area.getInt(base + NODE_LEFT);
+            int right = area.getInt(base + NODE_RIGHT);
+            int children = area.getInt(base + NODE_CHILDREN);
+            if (left != 0) {
+                stack[depth++] = left;
+            }
+            if (right != 0) {
+                stack[depth++] = right;
+            }
+            if (children != 0) {
+                stack[depth++] = children;
+            }
+        }
+        return properties;
+    }
+    private static void readProperty(ByteBuffer area, int info, int limit, Map<String, String> properties) {
+        String name = readCString(area, info + INFO_NAME, limit);
+        if (name == null || name.isEmpty()) {
+            return;
+        }
+        for (int attempt = 0; attempt < MAX_READ_ATTEMPTS; attempt++) {
+            int serial = area.getInt(info);
+            String value;
+            if ((serial & LONG_FLAG) != 0) {
+                value = readCString(area, info + area.getInt(info + LONG_OFFSET), limit);
+            } else {
+                int length = Math.min(serial >>> 24, PROP_VALUE_MAX - 1);
+                value = readString(area, info + INFO_VALUE, length);
+            }
+            if ((serial & 1) == 0 && area.getInt(info) == serial) {
+                if (value != null) {
+                    properties.put(name, value);
+                }
+                return;
+            }
+        }
+    }
+    private static String readCString(ByteBuffer area, int start, int limit) {
+        if (start < HEADER_SIZE || start >= limit) {
+            return null;
+        }
+        int end = start;
+        while (end < limit && area.get(end) != 0) {
+            end++;
+        }
+        return end < limit ? readString(area, start, end - start) : null;
+    }
+    private static String readString(ByteBuffer area, int start, int length) {
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = area.get(start + i);
+        }
+        return new String(bytes, UTF_8);
+    }
+    public static final class Snapshot {
+        public final List<PropertyArea> areas;
+        public final Map<String, String> properties;
+        Snapshot(List<PropertyArea> areas) {
+            this.areas = Collections.unmodifiableList(areas);
+            Map<String, String> merged = new HashMap<>();
+            for (PropertyArea area : areas) {
+                merged.putAll(area.properties);
+            }
+            this.properties = Collections.unmodifiableMap(merged);
+        }
+        public boolean isStale() {
+            for (PropertyArea area : areas) {
+                if (area.isStale()) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.rootdetector;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+public final class PropertySnapshot {
+    public static final String VBMETA_DEVICE_STATE = "ro.boot.vbmeta.device_state";
+    public static final String VERIFIED_BOOT_STATE = "ro.boot.verifiedbootstate";
+    public static final String BUILD_TAGS = "ro.build.tags";
+    private static final long GETPROP_TIMEOUT_MS = 1000;
+    private static final Set<String> KEYS = new LinkedHashSet<>(Arrays.asList(VBMETA_DEVICE_STATE, VERIFIED_BOOT_STATE, BUILD_TAGS, "ro.boot.flash.locked", "ro.debuggable", "ro.secure"));
+    private static Method getter;
+    private static boolean getterResolved;
+    private static PropertySnapshot current;
+    public final String source;
+    private final Map<String, String> values;
+    private final PropertyArea.Snapshot areas;
+    private PropertySnapshot(String source, Map<String, String> values, PropertyArea.Snapshot areas) {
+        this.source = source;
+        this.values = Collections.unmodifiableMap(values);
+        this.areas = areas;
+    }
+    public static synchronized PropertySnapshot current() {
+        if (current == null || current.isStale()) {
+            current = load(KEYS);
+        }
+        return current;
+    }
+    public static synchronized void registerKeys(String... keys) {
+        if (KEYS.addAll(Arrays.asList(keys)) && current != null && !"getprop".equals(current.source)) {
+            current = null;
+        }
+    }
+    public static synchronized void invalidate() {
+        current = null;
+    }
+    public String get(String key) {
+        return values.get(key);
+    }
+    public Map<String, String> values() {
+        return values;
+    }
+    public boolean isStale() {
+        return areas != null && areas.isStale();
+    }
+    private static PropertySnapshot load(Set<String> keys) {
+        Map<String, String> values = new HashMap<>();
+        PropertyArea.Snapshot areas = null;
+        if (PropertyArea.DEFAULT_LOCATION.exists()) {
+            areas = PropertyArea.parseAll(PropertyArea.DEFAULT_LOCATION);
+            for (String key : keys) {
+                String value = areas.properties.get(key);
+                if (value != null && !value.isEmpty()) {
+                    values.put(key, value);
+                }
+            }
+            if (values.size() == keys.size()) {
+                return new PropertySnapshot("property-area", values, areas);
+            }
+        }
+        Method method = resolveGetter();
+        if (method != null) {
+            try {
+                for (String key : keys) {
+                    if (values.containsKey(key)) {
+                        continue;
+                    }
+                    String value = (String) method.invoke(null, key);
+                    if (value != null && !value.isEmpty()) {
+                        values.put(key, value);
+                    }
+                }
+                return new PropertySnapshot(areas != null ? "property-area+reflection" : "reflection", values, areas);
+            } catch (ReflectiveOperationException | RuntimeException ignored) {
+            }
+        }
+        return new PropertySnapshot("getprop", readGetprop(), null);
+    }
+    private static Method resolveGetter() {
+        if (!getterResolved) {
+            getterResolved = true;
+            try {
+                getter = Class.forName("android.os.SystemProperties").getMethod("get", String.class);
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                getter = null;
+            }
+        }
+        return getter;
+    }
+    private static Map<String, String> readGetprop() {
+        Map<String, String> values = new HashMap<>();
+        try {
+            for (String line : ShellSession.shared().run("getprop", GETPROP_TIMEOUT_MS).output) {
+                int keyEnd = line.indexOf("]: [");
+                if (line.startsWith("[") && keyEnd > 0 && line.endsWith("]")) {
+                    String value = line.substring(keyEnd + 4, line.length() - 1);
+                    if (!value.isEmpty()) {
+                        values.put(line.substring(1, keyEnd), value);
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception ignored) {
+        }
+        return values;
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.rootdetector;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.TimeoutException;
+public final class RecordingDeviceProbe implements DeviceProbe {
+    private final DeviceProbe delegate;
+    private final InMemoryDeviceProbe recording = new InMemoryDeviceProbe();
+    public RecordingDeviceProbe(DeviceProbe delegate) {
+        this.delegate = delegate;
+    }
+    public InMemoryDeviceProbe recording() {
+        return recording;
+    }
+    @Override
+    public boolean exists(String path) {
+        boolean exists = delegate.exists(path);
+        if (exists) {
+            recording.exists(path, true);
+        }
+        return exists;
+    }
+    @Override
+    public String[] list(String directory) {
+        String[] names = delegate.list(directory);
+        if (names != null) {
+            recording.directory(directory, names);
+        }
+        return names;
+    }
+    @Override
+    public byte[] read(String path, int maxBytes) throws IOException {
+        try {
+            byte[] content = delegate.read(path, maxBytes);
+            recording.file(path, content);
+            return content;
+        } catch (IOException e) {
+            recordFailure(path);
+            throw e;
+        }
+    }
+    @Override
+    public InputStream open(String path) throws IOException {
+        ByteArrayOutputStream content = new ByteArrayOutputStream();
+        try (InputStream in = delegate.open(path)) {
+            byte[] buffer = new byte[8192];
+            int n;
+            while ((n = in.read(buffer)) >= 0) {
+                content.write(buffer, 0, n);
+            }
+        } catch (IOException e) {
+            recordFailure(path);
+            throw e;
+        }
+        byte[] bytes = content.toByteArray();
+        recording.file(path, bytes);
+        return new ByteArrayInputStream(bytes);
+    }
+    @Override
+    public ShellSession.Result exec(String command, long timeoutMs) throws IOException, InterruptedException, TimeoutException {
+        ShellSession.Result result = delegate.exec(command, timeoutMs);
+        recording.command(command, result.exitCode, result.output.toArray(new String[result.output.size()]));
+        return result;
+    }
+    @Override
+    public String property(String key) {
+        String value = delegate.property(key);
+        recording.property(key, value);
+        return value;
+    }
+    private void recordFailure(String path) {
+        if (delegate.exists(path)) {
+            recording.denied(path);
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.rootdetector;
+import com.example.rootdetector.RootDetectorUtil.CheckResult;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+public class ResultCache {
+    private static final class Entry {
+        final CheckResult result;
+        final RootCheck.Volatility volatility;
+        final long expiresAtNanos;
+        Entry(CheckResult result, RootCheck.Volatility volatility, long expiresAtNanos) {
+            this.result = result;
+            this.volatility = volatility;
+            this.expiresAtNanos = expiresAtNanos;
+        }
+    }
+    private static final class Flight extends FutureTask<CheckResult> {
+        private volatile boolean interrupted;
+        Flight(RootCheck check) {
+            super(check::run);
+        }
+        @Override
+        protected void set(CheckResult result) {
+            interrupted = Thread.currentThread().isInterrupted();
+            super.set(result);
+        }
+        @Override
+        protected void setException(Throwable t) {
+            interrupted = Thread.currentThread().isInterrupted() || t instanceof InterruptedException;
+            super.setException(t);
+        }
+    }
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Flight> inFlight = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+    public CheckResult peek(String checkName) {
+        Entry entry = entries.get(checkName);
+        return entry != null && System.nanoTime() - entry.expiresAtNanos < 0 ? entry.result : null;
+    }
+    CheckResult get(RootCheck check, boolean[] hit) throws Exception {
+        while (true) {
+            CheckResult cached = peek(check.name());
+            if (cached != null) {
+                hit[0] = true;
+                return cached;
+            }
+            Flight task = new Flight(check);
+            Flight running = inFlight.putIfAbsent(check.name(), task);
+            if (running == null) {
+                long startGeneration = generation.get();
+                long start = System.nanoTime();
+                try {
+                    task.run();
+                } finally {
+                    inFlight.remove(check.name(), task);
+                }
+                boolean completedInTime = !task.interrupted && System.nanoTime() - start <= TimeUnit.MILLISECONDS.toNanos(check.timeoutMs());
+                CheckResult result = unwrap(task);
+                if (check.ttlMs() > 0 && completedInTime && !result.inconclusive && generation.get() == startGeneration) {
+                    entries.put(check.name(), new Entry(result, check.volatility(), expiry(check.ttlMs())));
+                }
+                return result;
+            }
+            try {
+                running.get();
+            } catch (ExecutionException ignored) {
+            }
+            if (!running.interrupted) {
+                hit[0] = true;
+                return unwrap(running);
+            }
+        }
+    }
+    public void invalidate(String checkName) {
+        generation.incrementAndGet();
+        entries.remove(checkName);
+    }
+    public void invalidate(RootCheck.Volatility... volatilities) {
+        generation.incrementAndGet();
+        for (Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator(); it.hasNext(); ) {
+            RootCheck.Volatility volatility = it.next().getValue().volatility;
+            for (RootCheck.Volatility v : volatilities) {
+                if (v == volatility) {
+                    it.remove();
+                    break;
+                }
+            }
+        }
+    }
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        entries.clear();
+    }
+    private static long expiry(long ttlMs) {
+        long now = System.nanoTime();
+        long ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMs);
+        return ttlNanos > Long.MAX_VALUE / 2 ? now + Long.MAX_VALUE / 2 : now + ttlNanos;
+    }
+    private static CheckResult unwrap(FutureTask<CheckResult> task) throws Exception {
+        try {
+            return task.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
+            }
+            throw e;
+        }
+    }
+}
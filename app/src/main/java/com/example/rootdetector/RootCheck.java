@@ -0,0 +1,34 @@
+package com.example.rootdetector;
+import com.example.rootdetector.RootDetectorUtil.CheckResult;
+import java.util.List;
+public interface RootCheck {
+    enum Cost {
+        IN_MEMORY(1, 250),
+        FILE_STAT(2, 500),
+        FILE_READ(5, 1000),
+        PROCESS_SPAWN(50, 2000),
+        IPC(100, 5000);
+        public final int weight;
+        public final long defaultTimeoutMs;
+        Cost(int weight, long defaultTimeoutMs) {
+            this.weight = weight;
+            this.defaultTimeoutMs = defaultTimeoutMs;
+        }
+    }
+    enum Volatility {
+        PER_BOOT(Long.MAX_VALUE),
+        PER_PROCESS(Long.MAX_VALUE),
+        VOLATILE(5000);
+        public final long defaultTtlMs;
+        Volatility(long defaultTtlMs) {
+            this.defaultTtlMs = defaultTtlMs;
+        }
+    }
+    String name();
+    Cost cost();
+    Volatility volatility();
+    List<String> dependencies();
+    long timeoutMs();
+    long ttlMs();
+    CheckResult run() throws Exception;
+}
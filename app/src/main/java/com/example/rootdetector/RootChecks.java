@@ -0,0 +1,97 @@
+package com.example.rootdetector;
+import com.example.rootdetector.RootDetectorUtil.CheckResult;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+public final class RootChecks {
+    private RootChecks() {
+    }
+    public static Builder builder(String name, RootCheck.Cost cost, Callable<CheckResult> body) {
+        return new Builder(name, cost, body);
+    }
+    public static final class Builder {
+        private final String name;
+        private final RootCheck.Cost cost;
+        private final Callable<CheckResult> body;
+        private final List<String> dependencies = new ArrayList<>();
+        private RootCheck.Volatility volatility = RootCheck.Volatility.VOLATILE;
+        private long timeoutMs;
+        private long ttlMs = -1;
+        private Builder(String name, RootCheck.Cost cost, Callable<CheckResult> body) {
+            if (name == null || cost == null || body == null) {
+                throw new IllegalArgumentException("name, cost and body are required");
+            }
+            this.name = name;
+            this.cost = cost;
+            this.body = body;
+            this.timeoutMs = cost.defaultTimeoutMs;
+        }
+        public Builder dependsOn(String... checkNames) {
+            dependencies.addAll(Arrays.asList(checkNames));
+            return this;
+        }
+        public Builder volatility(RootCheck.Volatility volatility) {
+            this.volatility = volatility;
+            return this;
+        }
+        public Builder ttlMs(long ttlMs) {
+            this.ttlMs = ttlMs;
+            return this;
+        }
+        public Builder timeoutMs(long timeoutMs) {
+            this.timeoutMs = timeoutMs;
+            return this;
+        }
+        public RootCheck build() {
+            return new SimpleRootCheck(this);
+        }
+    }
+    private static final class SimpleRootCheck implements RootCheck {
+        private final String name;
+        private final Cost cost;
+        private final Callable<CheckResult> body;
+        private final List<String> dependencies;
+        private final Volatility volatility;
+        private final long timeoutMs;
+        private final long ttlMs;
+        SimpleRootCheck(Builder builder) {
+            this.name = builder.name;
+            this.cost = builder.cost;
+            this.body = builder.body;
+            this.dependencies = Collections.unmodifiableList(new ArrayList<>(builder.dependencies));
+            this.volatility = builder.volatility;
+            this.timeoutMs = builder.timeoutMs;
+            this.ttlMs = builder.ttlMs >= 0 ? builder.ttlMs : builder.volatility.defaultTtlMs;
+        }
+        @Override
+        public String name() {
+            return name;
+        }
+        @Override
+        public Cost cost() {
+            return cost;
+        }
+        @Override
+        public Volatility volatility() {
+            return volatility;
+        }
+        @Override
+        public List<String> dependencies() {
+            return dependencies;
+        }
+        @Override
+        public long timeoutMs() {
+            return timeoutMs;
+        }
+        @Override
+        public long ttlMs() {
+            return ttlMs;
+        }
+        @Override
+        public CheckResult run() throws Exception {
+            return body.call();
+        }
+    }
+}
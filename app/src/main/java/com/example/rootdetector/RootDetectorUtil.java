@@ -1,109 +1,381 @@
 package com.example.rootdetector;
 import android.content.Context;
-import android.os.Build;
-import com.google.android.play.core.integrity.IntegrityManager;
-import com.google.android.play.core.integrity.IntegrityManagerFactory;
-import com.google.android.play.core.integrity.IntegrityTokenRequest;
-import com.google.android.play.core.integrity.IntegrityTokenResponse;
-import java.io.BufferedReader;
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.TaskCompletionSource;
+import com.google.android.gms.tasks.Tasks;
 import java.io.File;
-import java.io.InputStreamReader;
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
-import org.json.JSONObject;
-import java.util.Base64;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 public class RootDetectorUtil {
     public interface IntegrityCheckCallback {
         void onFinished(CheckResult result);
     }
+    public interface CheckResultListener {
+        void onResult(CheckResult result);
+        void onComplete(List<CheckResult> results, boolean passed);
+    }
     public static class CheckResult {
         public final String checkName;
         public final boolean passed;
         public final String details;
+        public final boolean timedOut;
+        public final long durationMs;
+        public final boolean inconclusive;
         public CheckResult(String checkName, boolean passed, String details) {
+            this(checkName, passed, details, false, 0);
+        }
+        public CheckResult(String checkName, boolean passed, String details, boolean timedOut, long durationMs) {
+            this(checkName, passed, details, timedOut, durationMs, false);
+        }
+        public CheckResult(String checkName, boolean passed, String details, boolean timedOut, long durationMs, boolean inconclusive) {
             this.checkName = checkName;
             this.passed = passed;
             this.details = details;
+            this.timedOut = timedOut;
+            this.durationMs = durationMs;
+            this.inconclusive = inconclusive;
+        }
+        static CheckResult inconclusive(String checkName, String details) {
+            return new CheckResult(checkName, false, details, false, 0, true);
+        }
+    }
+    private static final CheckRegistry REGISTRY = createDefaultRegistry();
+    private static CheckRegistry createDefaultRegistry() {
+        CheckRegistry registry = new CheckRegistry();
+        registry.register(RootChecks.builder("Build Tags", RootCheck.Cost.IN_MEMORY, RootDetectorUtil::checkSystemProperties).volatility(RootCheck.Volatility.PER_BOOT).build());
+        registry.register(RootChecks.builder("SELinux Status", RootCheck.Cost.FILE_READ, RootDetectorUtil::checkSELinuxStatus).volatility(RootCheck.Volatility.PER_BOOT).build());
+        registry.register(RootChecks.builder("Bootloader State", RootCheck.Cost.IN_MEMORY, RootDetectorUtil::checkBootloaderStatus).volatility(RootCheck.Volatility.PER_BOOT).build());
+        registry.register(RootChecks.builder("Android Verified Boot", RootCheck.Cost.IN_MEMORY, RootDetectorUtil::checkAVBStatus).volatility(RootCheck.Volatility.PER_BOOT).build());
+        registry.register(RootChecks.builder("su Binary Check", RootCheck.Cost.FILE_READ, RootDetectorUtil::checkForSuBinary).build());
+        registry.register(RootChecks.builder("Mount Table", RootCheck.Cost.FILE_READ, RootDetectorUtil::checkMounts).build());
+        registry.register(RootChecks.builder("Hooking Frameworks", RootCheck.Cost.FILE_READ, RootDetectorUtil::checkMemoryMaps).build());
+        return registry;
+    }
+    public static CheckRegistry registry() {
+        return REGISTRY;
+    }
+    public static class IntegrityCheckResult extends CheckResult {
+        public final IntegrityVerdict verdict;
+        final String token;
+        public IntegrityCheckResult(String checkName, boolean passed, String details, IntegrityVerdict verdict) {
+            this(checkName, passed, details, verdict, null);
+        }
+        IntegrityCheckResult(String checkName, boolean passed, String details, IntegrityVerdict verdict, String token) {
+            super(checkName, passed, details);
+            this.verdict = verdict;
+            this.token = token;
         }
     }
     public static List<CheckResult> performSyncChecks() {
-        List<CheckResult> results = new ArrayList<>();
-        results.add(checkSystemProperties());
-        results.add(checkSELinuxStatus());
-        results.add(checkBootloaderStatus());
-        results.add(checkAVBStatus());
-        results.add(checkForSuBinary());
+        return performSyncChecks(CheckExecutor.Mode.ALL);
+    }
+    private static final CheckStats STATS = new CheckStats();
+    private static volatile File statsFile;
+    private static volatile BootResultCache bootCache;
+    private static final ResultCache RESULT_CACHE = new ResultCache();
+    private static final DeferredSave STATS_SAVE = new DeferredSave(RootDetectorUtil::saveStats);
+    private static final DeferredSave BOOT_CACHE_SAVE = new DeferredSave(RootDetectorUtil::saveBootCache);
+    public static void enableAdaptiveOrdering(Context context) {
+        File file = new File(context.getApplicationContext().getFilesDir(), "root_check_stats.bin");
+        try {
+            STATS.load(file);
+        } catch (IOException e) {
+            file.delete();
+        }
+        statsFile = file;
+    }
+    public static List<CheckResult> performSyncChecks(CheckExecutor.Mode mode) {
+        return runSyncChecks(mode, null);
+    }
+    public static void performSyncChecks(CheckResultListener listener) {
+        performSyncChecks(CheckExecutor.Mode.ALL, listener, DetectorExecutors.coordinator());
+    }
+    public static void performSyncChecks(final CheckExecutor.Mode mode, final CheckResultListener listener, Executor executor) {
+        executor.execute(() -> {
+            List<CheckResult> results = runSyncChecks(mode, listener);
+            boolean passed = true;
+            for (CheckResult result : results) {
+                passed &= result.passed;
+            }
+            listener.onComplete(results, passed);
+        });
+    }
+    public static ResultCache resultCache() {
+        return RESULT_CACHE;
+    }
+    public static void onAppForegrounded() {
+        RESULT_CACHE.invalidate(RootCheck.Volatility.VOLATILE);
+    }
+    public static void onPackagesChanged() {
+        RESULT_CACHE.invalidate(RootCheck.Volatility.VOLATILE, RootCheck.Volatility.PER_PROCESS);
+    }
+    public static void enableBootCache(Context context) {
+        bootCache = new BootResultCache(new File(context.getApplicationContext().getFilesDir(), "root_check_boot.bin"));
+    }
+    private static void saveStats() throws IOException {
+        File file = statsFile;
+        if (file != null) {
+            STATS.save(file);
+        }
+    }
+    private static void saveBootCache() throws IOException {
+        BootResultCache cache = bootCache;
+        if (cache != null) {
+            cache.save();
+        }
+    }
+    private static List<CheckResult> runSyncChecks(CheckExecutor.Mode mode, CheckResultListener listener) {
+        final File file = statsFile;
+        final BootResultCache cache = DeviceProbes.current() == DeviceProbes.android() ? bootCache : null;
+        List<RootCheck> checks = REGISTRY.checks();
+        Set<String> fromCache = new HashSet<>();
+        Set<String> perBoot = new HashSet<>();
+        if (cache != null) {
+            for (int i = 0; i < checks.size(); i++) {
+                RootCheck check = checks.get(i);
+                if (check.volatility() != RootCheck.Volatility.PER_BOOT) {
+                    continue;
+                }
+                perBoot.add(check.name());
+                final CheckResult cached = cache.get(check.name());
+                if (cached != null) {
+                    fromCache.add(check.name());
+                    checks.set(i, RootChecks.builder(check.name(), RootCheck.Cost.IN_MEMORY, () -> cached)
+                            .dependsOn(check.dependencies().toArray(new String[0]))
+                            .volatility(RootCheck.Volatility.PER_BOOT)
+                            .build());
+                }
+            }
+        }
+        Map<String, CachedCheck> cached = new HashMap<>();
+        for (int i = 0; i < checks.size(); i++) {
+            CachedCheck check = new CachedCheck(checks.get(i), RESULT_CACHE);
+            cached.put(check.name(), check);
+            checks.set(i, check);
+        }
+        CheckScheduler.Priority priority = file != null && mode == CheckExecutor.Mode.FAIL_FAST ? STATS : CheckScheduler.STATIC_COST;
+        List<CheckResult> results = CheckExecutor.shared().execute(CheckScheduler.order(checks, priority), mode, listener);
+        boolean cacheUpdated = false;
+        for (CheckResult result : results) {
+            CachedCheck check = cached.get(result.checkName);
+            if (fromCache.contains(result.checkName) || (check != null && check.servedFromCache())) {
+                continue;
+            }
+            STATS.record(result.checkName, result.durationMs, !result.passed, !result.timedOut);
+            if (perBoot.contains(result.checkName)) {
+                cache.put(result);
+                cacheUpdated = true;
+            }
+        }
+        if (file != null) {
+            STATS_SAVE.request();
+        }
+        if (cacheUpdated) {
+            BOOT_CACHE_SAVE.request();
+        }
         return results;
     }
+    static final String INTEGRITY_CHECK_NAME = "Google Play Integrity (STRONG)";
+    private static final String INTEGRITY_NONCE = "R00T";
+    private static final IntegrityQuota INTEGRITY_QUOTA = new IntegrityQuota();
+    private static final long INTEGRITY_REQUEST_TIMEOUT_MS = 30000;
+    private static final IntegrityClient INTEGRITY = new IntegrityClient(INTEGRITY_QUOTA, RootDetectorUtil::localIntegrityFallback, INTEGRITY_REQUEST_TIMEOUT_MS);
+    private static final StandardIntegrityClient STANDARD_INTEGRITY = new StandardIntegrityClient();
+    private static final IntegrityCallGuard INTEGRITY_GUARD = new IntegrityCallGuard();
+    private static volatile IntegrityBackend.Factory integrityBackendFactory = PlayIntegrityBackend.FACTORY;
     public static void performIntegrityCheck(Context context, IntegrityCheckCallback callback) {
-        IntegrityManager integrityManager = IntegrityManagerFactory.create(context);
-        integrityManager.requestIntegrityToken(IntegrityTokenRequest.builder().setNonce("R00T").build())
-            .addOnSuccessListener(response -> {
-                String verdict = parseVerdictFromToken(response.token());
-                boolean passed = "MEETS_STRONG_INTEGRITY".equals(verdict);
-                callback.onFinished(new CheckResult("Google Play Integrity (STRONG)", passed, "Verdict: " + verdict));
-            })
-            .addOnFailureListener(e -> {
-                callback.onFinished(new CheckResult("Google Play Integrity (STRONG)", false, "API call failed: " + e.getMessage()));
+        performIntegrityCheck(context, 0, callback);
+    }
+    public static void performIntegrityCheck(final Context context, long maxAgeMs, IntegrityCheckCallback callback) {
+        INTEGRITY.check(maxAgeMs, callback, round -> requestIntegrityVerdict(context, round));
+    }
+    public static void enableIntegrityVerdictPersistence(Context context, long ttlMs) {
+        INTEGRITY.enablePersistence(new File(context.getApplicationContext().getFilesDir(), "root_integrity_verdict.bin"), ttlMs);
+    }
+    public static void prewarmStandardIntegrity(Context context, long cloudProjectNumber) {
+        STANDARD_INTEGRITY.prewarm(context, cloudProjectNumber);
+    }
+    public static void performStandardIntegrityCheck(IntegrityCheckCallback callback) {
+        performStandardIntegrityCheck(INTEGRITY_NONCE, callback);
+    }
+    public static void performStandardIntegrityCheck(String requestHash, IntegrityCheckCallback callback) {
+        STANDARD_INTEGRITY.request(requestHash, RootDetectorUtil::verdictResult, callback);
+    }
+    public static void enableIntegrityRateLimit(Context context, int capacity, long refillIntervalMs) {
+        INTEGRITY_QUOTA.configure(new File(context.getApplicationContext().getFilesDir(), "root_integrity_quota.bin"), capacity, refillIntervalMs);
+    }
+    public static IntegrityQuota integrityQuota() {
+        return INTEGRITY_QUOTA;
+    }
+    private static void localIntegrityFallback(final IntegrityClient.Round round) {
+        DetectorExecutors.coordinator().execute(() -> {
+            List<CheckResult> local = performSyncChecks(CheckExecutor.Mode.FAIL_FAST);
+            boolean passed = true;
+            for (CheckResult result : local) {
+                passed &= result.passed;
+            }
+            round.deliverUncached(CheckResult.inconclusive(INTEGRITY_CHECK_NAME, "Integrity budget exhausted; no Play verdict available (local checks " + (passed ? "all passed" : "detected a failure") + ")."));
+        });
+    }
+    public static IntegrityCallGuard integrityCallGuard() {
+        return INTEGRITY_GUARD;
+    }
+    public static void setDeviceProbe(DeviceProbe probe) {
+        DeviceProbes.install(probe);
+        PropertySnapshot.invalidate();
+        RESULT_CACHE.invalidateAll();
+    }
+    public static void setIntegrityBackendFactory(IntegrityBackend.Factory factory) {
+        integrityBackendFactory = factory != null ? factory : PlayIntegrityBackend.FACTORY;
+    }
+    private static void requestIntegrityVerdict(Context context, final IntegrityClient.Round round) {
+        final IntegrityBackend backend = integrityBackendFactory.create(context);
+        INTEGRITY_GUARD.execute(attempt -> backend.requestToken(INTEGRITY_NONCE, new IntegrityBackend.Callback() {
+                @Override
+                public void onToken(String token) {
+                    attempt.succeeded(token);
+                }
+                @Override
+                public void onError(Exception e) {
+                    attempt.failed(e);
+                }
+            }), new IntegrityCallGuard.Outcome() {
+                @Override
+                public void onSuccess(String token) {
+                    round.deliverVerdict(verdictResult(token));
+                }
+                @Override
+                public void onFailure(String reason) {
+                    round.deliverUncached(new CheckResult(INTEGRITY_CHECK_NAME, false, "API call failed: " + reason));
+                }
             });
     }
-    private static String parseVerdictFromToken(String token) {
+    public static Task<List<CheckResult>> performSyncChecksAsync() {
+        return performSyncChecksAsync(DetectorExecutors.coordinator());
+    }
+    public static Task<List<CheckResult>> performSyncChecksAsync(Executor executor) {
+        return Tasks.call(executor, RootDetectorUtil::performSyncChecks);
+    }
+    public static Task<CheckResult> performIntegrityCheckAsync(Context context) {
+        TaskCompletionSource<CheckResult> source = new TaskCompletionSource<>();
+        performIntegrityCheck(context, source::trySetResult);
+        return source.getTask();
+    }
+    public static Task<List<CheckResult>> performAllChecksAsync(Context context, long timeoutMs) {
+        return performAllChecksAsync(context, timeoutMs, DetectorExecutors.coordinator());
+    }
+    public static Task<List<CheckResult>> performAllChecksAsync(Context context, long timeoutMs, Executor executor) {
+        final Task<List<CheckResult>> sync = performSyncChecksAsync(executor);
+        final Task<CheckResult> integrity = performIntegrityCheckAsync(context);
+        Task<List<CheckResult>> combined = Tasks.whenAll(sync, integrity).continueWith(DetectorExecutors.DIRECT, ignored -> {
+            List<CheckResult> results = new ArrayList<>(sync.getResult());
+            results.add(integrity.getResult());
+            return results;
+        });
+        return withDeadline(combined, timeoutMs);
+    }
+    private static <T> Task<T> withDeadline(Task<T> task, final long timeoutMs) {
+        final TaskCompletionSource<T> source = new TaskCompletionSource<>();
+        final ScheduledFuture<?> timeout = DetectorExecutors.scheduler().schedule(() -> {
+            source.trySetException(new TimeoutException("Detection did not finish within " + timeoutMs + " ms"));
+        }, timeoutMs, TimeUnit.MILLISECONDS);
+        task.addOnCompleteListener(DetectorExecutors.DIRECT, completed -> {
+            timeout.cancel(false);
+            if (completed.isSuccessful()) {
+                source.trySetResult(completed.getResult());
+            } else {
+                source.trySetException(completed.getException());
+            }
+        });
+        return source.getTask();
+    }
+    static CheckResult verdictResult(String token) {
+        IntegrityVerdict verdict;
+        IntegrityVerdict.DeviceIntegrity device;
         try {
-            String[] parts = token.split("\.");
-            if (parts.length < 2) return "Invalid Token Structure";
-            byte[] decodedBytes = Base64.getDecoder().decode(parts[1]);
-            String payload = new String(decodedBytes, "UTF-8");
-            JSONObject json = new JSONObject(payload);
-            JSONObject deviceIntegrity = json.getJSONObject("deviceIntegrity");
-            return deviceIntegrity.getString("deviceRecognitionVerdict");
-        } catch (Exception e) {
-            return "Verdict Parsing Failed: " + e.getMessage();
+            verdict = IntegrityTokenParser.parse(token);
+            device = verdict.deviceIntegrity();
+        } catch (RuntimeException e) {
+            return new CheckResult(INTEGRITY_CHECK_NAME, false, "Verdict Parsing Failed: " + e.getMessage());
         }
+        boolean passed = device.meets(IntegrityVerdict.DeviceRecognitionLabel.MEETS_STRONG_INTEGRITY);
+        return new IntegrityCheckResult(INTEGRITY_CHECK_NAME, passed, "Verdict: " + device.labels, verdict, token);
     }
     private static CheckResult checkSystemProperties() {
-        String buildTags = Build.TAGS;
-        if (buildTags != null && buildTags.contains("test-keys")) {
+        String buildTags = DeviceProbes.current().property(PropertySnapshot.BUILD_TAGS);
+        if (buildTags == null) {
+            return CheckResult.inconclusive("Build Tags", "Build tags are unavailable.");
+        } else if (Signatures.BUILD_TAGS.firstMatch(buildTags) >= 0) {
             return new CheckResult("Build Tags", false, "Device is signed with test-keys.");
         }
         return new CheckResult("Build Tags", true, "Device is signed with release-keys.");
     }
     private static CheckResult checkSELinuxStatus() {
-        try {
-            Process process = Runtime.getRuntime().exec("getenforce");
-            BufferedReader r = new BufferedReader(new InputStreamReader(process.getInputStream()));
-            String s = r.readLine();
-            if ("Enforcing".equalsIgnoreCase(s)) {
-                return new CheckResult("SELinux Status", true, "SELinux is in Enforcing mode.");
-            } else {
-                return new CheckResult("SELinux Status", false, "SELinux is not Enforcing (Status: " + s + ").");
-            }
-        } catch (Exception e) {
-            return new CheckResult("SELinux Status", false, "Could not check: " + e.getMessage());
+        SELinuxProbe.Result probe = SELinuxProbe.probe();
+        String source = " [source: " + probe.source + ", " + probe.durationMicros + " us]";
+        if (probe.mode == SELinuxProbe.Mode.ENFORCING) {
+            return new CheckResult("SELinux Status", true, "SELinux is in Enforcing mode." + source);
+        } else if (probe.mode == SELinuxProbe.Mode.UNKNOWN) {
+            return CheckResult.inconclusive("SELinux Status", "SELinux mode could not be determined." + source);
+        } else {
+            return new CheckResult("SELinux Status", false, "SELinux is not Enforcing (Status: " + probe.mode + ")." + source);
         }
     }
     private static CheckResult checkBootloaderStatus() {
-        String state = System.getProperty("ro.boot.vbmeta.device_state");
+        String state = DeviceProbes.current().property(PropertySnapshot.VBMETA_DEVICE_STATE);
         if ("locked".equalsIgnoreCase(state)) {
             return new CheckResult("Bootloader State", true, "Bootloader is locked.");
+        } else if (state == null) {
+            return CheckResult.inconclusive("Bootloader State", "Bootloader state is unavailable.");
         } else {
             return new CheckResult("Bootloader State", false, "Bootloader is unlocked (State: " + state + ").");
         }
     }
     private static CheckResult checkAVBStatus() {
-        String state = System.getProperty("ro.boot.verifiedbootstate");
+        String state = DeviceProbes.current().property(PropertySnapshot.VERIFIED_BOOT_STATE);
         if ("green".equalsIgnoreCase(state)) {
             return new CheckResult("Android Verified Boot", true, "AVB status is GREEN.");
+        } else if (state == null) {
+            return CheckResult.inconclusive("Android Verified Boot", "AVB status is unavailable.");
         } else {
             return new CheckResult("Android Verified Boot", false, "AVB status is not GREEN (State: " + state + ").");
         }
     }
     private static CheckResult checkForSuBinary() {
-        String[] paths = {"/system/app/Superuser.apk", "/sbin/su", "/system/bin/su", "/system/xbin/su", "/data/local/xbin/su", "/data/local/bin/su", "/system/sd/xbin/su", "/system/bin/failsafe/su", "/data/local/su"};
-        for (String path : paths) {
-            if (new File(path).exists()) {
-                return new CheckResult("su Binary Check", false, "'su' binary found at: " + path);
+        List<SuScanner.Finding> findings = SuScanner.scan();
+        if (findings.isEmpty()) {
+            return new CheckResult("su Binary Check", true, "No 'su' binary found.");
+        }
+        StringBuilder paths = new StringBuilder();
+        for (SuScanner.Finding finding : findings) {
+            if (paths.length() > 0) {
+                paths.append(", ");
             }
+            paths.append(finding.path());
+        }
+        return new CheckResult("su Binary Check", false, "Root binaries found at: " + paths);
+    }
+    private static CheckResult checkMounts() throws IOException {
+        MountAnalyzer.Report report = MountAnalyzer.analyze();
+        if (report.findings.isEmpty()) {
+            return new CheckResult("Mount Table", true, "No suspicious mounts among " + report.mountCount + " entries.");
+        }
+        return new CheckResult("Mount Table", false, "Suspicious mounts: " + report.findings);
+    }
+    private static CheckResult checkMemoryMaps() throws IOException {
+        MapsScanner.Report report = MapsScanner.scan();
+        if (report.isClean()) {
+            return new CheckResult("Hooking Frameworks", true, "No hooking framework found in " + report.regionCount + " mapped regions (" + report.anonymousExecutableRegions + " anonymous executable, " + report.writableExecutableRegions + " writable+executable).");
         }
-        return new CheckResult("su Binary Check", true, "No 'su' binary found.");
+        return new CheckResult("Hooking Frameworks", false, "Injected code found: " + report.libraries + " (" + report.writableExecutableRegions + " writable+executable anonymous regions).");
     }
 }
@@ -0,0 +1,78 @@
+package com.example.rootdetector;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+public final class SELinuxProbe {
+    public enum Mode {
+        ENFORCING,
+        PERMISSIVE,
+        DISABLED,
+        UNKNOWN
+    }
+    public static final class Result {
+        public final Mode mode;
+        public final String source;
+        public final long durationMicros;
+        Result(Mode mode, String source, long durationMicros) {
+            this.mode = mode;
+            this.source = source;
+            this.durationMicros = durationMicros;
+        }
+    }
+    private static final String[] ENFORCE_FILES = {"/sys/fs/selinux/enforce", "/selinux/enforce"};
+    private static final long GETENFORCE_TIMEOUT_MS = 1000;
+    private SELinuxProbe() {
+    }
+    public static Result probe() {
+        long start = System.nanoTime();
+        DeviceProbe probe = DeviceProbes.current();
+        boolean denied = false;
+        String deniedPath = null;
+        for (String path : ENFORCE_FILES) {
+            try {
+                byte[] value = probe.read(path, 1);
+                if (value.length == 1 && value[0] == '1') {
+                    return result(Mode.ENFORCING, path, start);
+                } else if (value.length == 1 && value[0] == '0') {
+                    return result(Mode.PERMISSIVE, path, start);
+                }
+            } catch (IOException e) {
+                if (!denied && probe.exists(path)) {
+                    denied = true;
+                    deniedPath = path;
+                }
+            }
+        }
+        if (denied) {
+            return result(Mode.ENFORCING, deniedPath + " (read denied)", start);
+        }
+        return result(readGetenforce(probe), "getenforce", start);
+    }
+    private static Mode readGetenforce(DeviceProbe probe) {
+        try {
+            return parseMode(probe.exec("getenforce", GETENFORCE_TIMEOUT_MS).firstLine());
+        } catch (IOException | TimeoutException e) {
+            return Mode.UNKNOWN;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Mode.UNKNOWN;
+        }
+    }
+    static Mode parseMode(String status) {
+        if (status == null) {
+            return Mode.UNKNOWN;
+        }
+        status = status.trim();
+        if ("Enforcing".equalsIgnoreCase(status)) {
+            return Mode.ENFORCING;
+        } else if ("Permissive".equalsIgnoreCase(status)) {
+            return Mode.PERMISSIVE;
+        } else if ("Disabled".equalsIgnoreCase(status)) {
+            return Mode.DISABLED;
+        }
+        return Mode.UNKNOWN;
+    }
+    private static Result result(Mode mode, String source, long startNanos) {
+        return new Result(mode, source, TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startNanos));
+    }
+}
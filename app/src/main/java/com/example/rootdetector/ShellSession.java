@@ -0,0 +1,166 @@
+package com.example.rootdetector;
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+public class ShellSession implements Closeable {
+    public static final class Result {
+        public final int exitCode;
+        public final List<String> output;
+        Result(int exitCode, List<String> output) {
+            this.exitCode = exitCode;
+            this.output = Collections.unmodifiableList(output);
+        }
+        public String firstLine() {
+            return output.isEmpty() ? null : output.get(0);
+        }
+    }
+    private static final String END_OF_STREAM = new String("<eof>");
+    private static final String MARKER_PREFIX = "__RD_END_";
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    private static volatile ShellSession shared;
+    private final String shell;
+    private Process process;
+    private Writer stdin;
+    private BlockingQueue<String> lines;
+    private Thread reader;
+    private long sequence;
+    private int spawnCount;
+    public ShellSession() {
+        this(new File("/system/bin/sh").exists() ? "/system/bin/sh" : "sh");
+    }
+    public ShellSession(String shell) {
+        this.shell = shell;
+    }
+    public static ShellSession shared() {
+        if (shared == null) {
+            synchronized (ShellSession.class) {
+                if (shared == null) {
+                    shared = new ShellSession();
+                }
+            }
+        }
+        return shared;
+    }
+    public synchronized Result run(String command, long timeoutMs) throws IOException, TimeoutException, InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        String marker = MARKER_PREFIX + (++sequence) + "__";
+        String framed = "{ " + command + "\n} < /dev/null\necho \"" + marker + " $?\"\n";
+        try {
+            send(framed);
+        } catch (IOException e) {
+            destroy();
+            send(framed);
+        }
+        List<String> output = new ArrayList<>();
+        while (true) {
+            long remaining = deadline - System.nanoTime();
+            String line;
+            try {
+                line = remaining > 0 ? lines.poll(remaining, TimeUnit.NANOSECONDS) : null;
+            } catch (InterruptedException e) {
+                destroy();
+                throw e;
+            }
+            if (line == null) {
+                destroy();
+                throw new TimeoutException("'" + command + "' did not finish within " + timeoutMs + " ms");
+            }
+            if (line == END_OF_STREAM) {
+                destroy();
+                throw new IOException("Shell exited while running '" + command + "'");
+            }
+            int at = line.indexOf(marker);
+            if (at < 0) {
+                output.add(line);
+                continue;
+            }
+            if (at > 0) {
+                output.add(line.substring(0, at));
+            }
+            return new Result(parseExitCode(line, at + marker.length()), output);
+        }
+    }
+    public synchronized int spawnCount() {
+        return spawnCount;
+    }
+    @Override
+    public synchronized void close() {
+        destroy();
+    }
+    private void send(String framed) throws IOException {
+        if (process == null || !isAlive(process)) {
+            start();
+        }
+        stdin.write(framed);
+        stdin.flush();
+    }
+    private void start() throws IOException {
+        destroy();
+        final Process started = new ProcessBuilder(shell).redirectErrorStream(true).start();
+        final BlockingQueue<String> queue = new LinkedBlockingQueue<>();
+        Thread thread = new Thread(() -> {
+            try (BufferedReader r = new BufferedReader(new InputStreamReader(started.getInputStream(), UTF_8))) {
+                String line;
+                while ((line = r.readLine()) != null) {
+                    queue.add(line);
+                }
+            } catch (IOException ignored) {
+            } finally {
+                queue.add(END_OF_STREAM);
+            }
+        }, "RootDetectorShell");
+        thread.setDaemon(true);
+        thread.start();
+        spawnCount++;
+        process = started;
+        stdin = new OutputStreamWriter(started.getOutputStream(), UTF_8);
+        lines = queue;
+        reader = thread;
+    }
+    private void destroy() {
+        if (process == null) {
+            return;
+        }
+        try {
+            stdin.close();
+        } catch (IOException ignored) {
+        }
+        process.destroy();
+        try {
+            process.getInputStream().close();
+        } catch (IOException ignored) {
+        }
+        reader.interrupt();
+        process = null;
+        stdin = null;
+        lines = null;
+        reader = null;
+    }
+    private static boolean isAlive(Process process) {
+        try {
+            process.exitValue();
+            return false;
+        } catch (IllegalThreadStateException e) {
+            return true;
+        }
+    }
+    private static int parseExitCode(String line, int from) {
+        try {
+            return Integer.parseInt(line.substring(from).trim());
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.example.rootdetector;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.Locale;
+public final class SignatureMatcher {
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    private final String[] patterns;
+    private final int[] byteClass = new int[256];
+    private final int classCount;
+    private final int[] transitions;
+    private final int[] firstMatch;
+    private final int[] output;
+    private final int[] outputLink;
+    private SignatureMatcher(String[] patterns, boolean ignoreCase) {
+        this.patterns = patterns.clone();
+        byte[][] encoded = new byte[patterns.length][];
+        int maxStates = 1;
+        int classes = 1;
+        for (int i = 0; i < patterns.length; i++) {
+            if (patterns[i].isEmpty()) {
+                throw new IllegalArgumentException("Empty signature");
+            }
+            encoded[i] = (ignoreCase ? patterns[i].toLowerCase(Locale.ROOT) : patterns[i]).getBytes(UTF_8);
+            maxStates += encoded[i].length;
+            for (byte b : encoded[i]) {
+                if (byteClass[b & 0xff] == 0) {
+                    byteClass[b & 0xff] = classes++;
+                }
+            }
+        }
+        if (ignoreCase) {
+            for (int c = 'A'; c <= 'Z'; c++) {
+                byteClass[c] = byteClass[c + ('a' - 'A')];
+            }
+        }
+        classCount = classes;
+        int[] trie = new int[maxStates * classes];
+        Arrays.fill(trie, -1);
+        int[] out = new int[maxStates];
+        Arrays.fill(out, -1);
+        int states = 1;
+        for (int i = 0; i < encoded.length; i++) {
+            int state = 0;
+            for (byte b : encoded[i]) {
+                int slot = state * classes + byteClass[b & 0xff];
+                if (trie[slot] < 0) {
+                    trie[slot] = states++;
+                }
+                state = trie[slot];
+            }
+            if (out[state] < 0) {
+                out[state] = i;
+            }
+        }
+        int[] fail = new int[states];
+        int[] link = new int[states];
+        int[] first = new int[states];
+        Arrays.fill(link, -1);
+        int[] queue = new int[states];
+        int head = 0;
+        int tail = 0;
+        first[0] = -1;
+        for (int c = 0; c < classes; c++) {
+            int next = trie[c];
+            if (next < 0) {
+                trie[c] = 0;
+            } else {
+                fail[next] = 0;
+                queue[tail++] = next;
+            }
+        }
+        while (head < tail) {
+            int state = queue[head++];
+            int f = fail[state];
+            link[state] = out[f] >= 0 ? f : link[f];
+            first[state] = out[state] >= 0 ? out[state] : first[f];
+            for (int c = 0; c < classes; c++) {
+                int slot = state * classes + c;
+                int next = trie[slot];
+                if (next < 0) {
+                    trie[slot] = trie[f * classes + c];
+                } else {
+                    fail[next] = trie[f * classes + c];
+                    queue[tail++] = next;
+                }
+            }
+        }
+        transitions = Arrays.copyOf(trie, states * classes);
+        firstMatch = first;
+        output = Arrays.copyOf(out, states);
+        outputLink = link;
+    }
+    public static SignatureMatcher compile(String... patterns) {
+        return new SignatureMatcher(patterns, false);
+    }
+    public static SignatureMatcher compileIgnoreCase(String... patterns) {
+        return new SignatureMatcher(patterns, true);
+    }
+    public int size() {
+        return patterns.length;
+    }
+    public String pattern(int id) {
+        return patterns[id];
+    }
+    public int firstMatch(byte[] data, int start, int end) {
+        int state = 0;
+        for (int i = start; i < end; i++) {
+            state = transitions[state * classCount + byteClass[data[i] & 0xff]];
+            if (firstMatch[state] >= 0) {
+                return firstMatch[state];
+            }
+        }
+        return -1;
+    }
+    public int firstMatch(CharSequence text) {
+        if (text == null) {
+            return -1;
+        }
+        int state = 0;
+        for (int i = 0, n = text.length(); i < n; i++) {
+            char c = text.charAt(i);
+            state = transitions[state * classCount + (c < 256 ? byteClass[c] : 0)];
+            if (firstMatch[state] >= 0) {
+                return firstMatch[state];
+            }
+        }
+        return -1;
+    }
+    public int matchAll(byte[] data, int start, int end, boolean[] found) {
+        int matched = 0;
+        int state = 0;
+        for (int i = start; i < end; i++) {
+            state = transitions[state * classCount + byteClass[data[i] & 0xff]];
+            for (int s = output[state] >= 0 ? state : outputLink[state]; s >= 0; s = outputLink[s]) {
+                if (!found[output[s]]) {
+                    found[output[s]] = true;
+                    matched++;
+                }
+            }
+        }
+        return matched;
+    }
+}
@@ -0,0 +1,9 @@
+package com.example.rootdetector;
+final class Signatures {
+    static final SignatureMatcher BUILD_TAGS = SignatureMatcher.compile("test-keys");
+    static final SignatureMatcher MOUNT_SOURCES = SignatureMatcher.compileIgnoreCase("magisk", "/data/adb");
+    static final SignatureMatcher HOOKING_LIBRARIES = SignatureMatcher.compileIgnoreCase(
+            "frida", "gadget", "gum-js", "xposed", "lspd", "lsposed", "edxp", "zygisk", "riru", "substrate");
+    private Signatures() {
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.rootdetector;
+import android.content.Context;
+import com.example.rootdetector.RootDetectorUtil.CheckResult;
+import com.example.rootdetector.RootDetectorUtil.IntegrityCheckCallback;
+import com.google.android.gms.tasks.Task;
+import com.google.android.play.core.integrity.IntegrityManagerFactory;
+import com.google.android.play.core.integrity.StandardIntegrityException;
+import com.google.android.play.core.integrity.StandardIntegrityManager;
+import com.google.android.play.core.integrity.StandardIntegrityManager.PrepareIntegrityTokenRequest;
+import com.google.android.play.core.integrity.StandardIntegrityManager.StandardIntegrityTokenProvider;
+import com.google.android.play.core.integrity.StandardIntegrityManager.StandardIntegrityTokenRequest;
+import com.google.android.play.core.integrity.model.StandardIntegrityErrorCode;
+final class StandardIntegrityClient {
+    interface VerdictMapper {
+        CheckResult map(String token);
+    }
+    private StandardIntegrityManager manager;
+    private long cloudProjectNumber;
+    private Task<StandardIntegrityTokenProvider> provider;
+    synchronized void prewarm(Context context, long cloudProjectNumber) {
+        if (manager == null) {
+            manager = IntegrityManagerFactory.createStandard(context.getApplicationContext());
+        }
+        if (provider == null || this.cloudProjectNumber != cloudProjectNumber || (provider.isComplete() && !provider.isSuccessful())) {
+            this.cloudProjectNumber = cloudProjectNumber;
+            provider = prepare();
+        }
+    }
+    void request(String requestHash, VerdictMapper mapper, IntegrityCheckCallback callback) {
+        Task<StandardIntegrityTokenProvider> current;
+        synchronized (this) {
+            if (provider != null && provider.isComplete() && !provider.isSuccessful()) {
+                provider = prepare();
+            }
+            current = provider;
+        }
+        if (current == null) {
+            callback.onFinished(new CheckResult(RootDetectorUtil.INTEGRITY_CHECK_NAME, false, "Standard integrity provider was not prepared."));
+            return;
+        }
+        request(current, requestHash, mapper, callback, true);
+    }
+    private void request(final Task<StandardIntegrityTokenProvider> current, final String requestHash, final VerdictMapper mapper, final IntegrityCheckCallback callback, final boolean mayRefresh) {
+        current.addOnSuccessListener(tokenProvider -> tokenProvider.request(StandardIntegrityTokenRequest.builder().setRequestHash(requestHash).build())
+                .addOnSuccessListener(token -> callback.onFinished(mapper.map(token.token())))
+                .addOnFailureListener(e -> {
+                    if (mayRefresh && isProviderInvalid(e)) {
+                        request(refresh(current), requestHash, mapper, callback, false);
+                    } else {
+                        callback.onFinished(new CheckResult(RootDetectorUtil.INTEGRITY_CHECK_NAME, false, "API call failed: " + e.getMessage()));
+                    }
+                }))
+            .addOnFailureListener(e -> callback.onFinished(new CheckResult(RootDetectorUtil.INTEGRITY_CHECK_NAME, false, "Provider preparation failed: " + e.getMessage())));
+    }
+    private synchronized Task<StandardIntegrityTokenProvider> refresh(Task<StandardIntegrityTokenProvider> stale) {
+        if (provider == stale) {
+            provider = prepare();
+        }
+        return provider;
+    }
+    private Task<StandardIntegrityTokenProvider> prepare() {
+        return manager.prepareIntegrityToken(PrepareIntegrityTokenRequest.builder().setCloudProjectNumber(cloudProjectNumber).build());
+    }
+    private static boolean isProviderInvalid(Exception e) {
+        return e instanceof StandardIntegrityException
+                && ((StandardIntegrityException) e).getErrorCode() == StandardIntegrityErrorCode.INTEGRITY_TOKEN_PROVIDER_INVALID;
+    }
+}
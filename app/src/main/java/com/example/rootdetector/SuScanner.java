@@ -0,0 +1,65 @@
+package com.example.rootdetector;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+public final class SuScanner {
+    public static final class Finding {
+        public final String directory;
+        public final String name;
+        Finding(String directory, String name) {
+            this.directory = directory;
+            this.name = name;
+        }
+        public String path() {
+            return directory.endsWith("/") ? directory + name : directory + "/" + name;
+        }
+    }
+    private static final String[] KNOWN_DIRECTORIES = {"/system/app", "/sbin", "/system/bin", "/system/xbin", "/data/local/xbin", "/data/local/bin", "/system/sd/xbin", "/system/bin/failsafe", "/data/local", "/su/bin", "/data/adb", "/debug_ramdisk"};
+    private static final Set<String> ROOT_ARTIFACTS = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
+            "su", "Superuser.apk", "daemonsu", "busybox", "supolicy", "magisk", "magisk32", "magisk64", "magiskinit", "magiskpolicy", "resetprop", "ksud")));
+    private SuScanner() {
+    }
+    public static List<Finding> scan() {
+        return scan(candidateDirectories());
+    }
+    public static List<Finding> scan(Collection<String> directories) {
+        DeviceProbe probe = DeviceProbes.current();
+        List<Finding> findings = new ArrayList<>();
+        for (String directory : directories) {
+            String[] names = probe.list(directory);
+            if (names != null) {
+                for (String name : names) {
+                    if (ROOT_ARTIFACTS.contains(name)) {
+                        findings.add(new Finding(directory, name));
+                    }
+                }
+            } else {
+                Finding su = new Finding(directory, "su");
+                if (probe.exists(su.path())) {
+                    findings.add(su);
+                }
+            }
+        }
+        return findings;
+    }
+    public static Set<String> candidateDirectories() {
+        Set<String> directories = new LinkedHashSet<>(Arrays.asList(KNOWN_DIRECTORIES));
+        String path = System.getenv("PATH");
+        if (path != null) {
+            for (String entry : path.split(":")) {
+                if (entry.length() > 1 && entry.endsWith("/")) {
+                    entry = entry.substring(0, entry.length() - 1);
+                }
+                if (!entry.isEmpty()) {
+                    directories.add(entry);
+                }
+            }
+        }
+        return directories;
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.rootdetector;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import com.example.rootdetector.RootDetectorUtil.CheckResult;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import javax.crypto.spec.SecretKeySpec;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+public class BootResultCacheTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+    private final FileSeal seal = new FileSeal(new SecretKeySpec("boot-cache-test-key".getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+    @Test
+    public void reloadsResultsForTheSameBoot() throws IOException {
+        File file = folder.newFile("root_check_boot.bin");
+        saveFailedSelinux(file);
+        CheckResult reloaded = new BootResultCache(file, "boot-1", seal).get("SELinux Status");
+        assertFalse(reloaded.passed);
+        assertEquals("SELinux is not Enforcing (Status: PERMISSIVE).", reloaded.details);
+        assertNull(new BootResultCache(file, "boot-2", seal).get("SELinux Status"));
+    }
+    @Test
+    public void skipsInconclusiveResults() throws IOException {
+        File file = folder.newFile("root_check_boot.bin");
+        BootResultCache cache = new BootResultCache(file, "boot-1", seal);
+        cache.put(CheckResult.inconclusive("Bootloader State", "Bootloader state is unavailable."));
+        assertNull(cache.get("Bootloader State"));
+    }
+    @Test
+    public void discardsTamperedFile() throws IOException {
+        File file = folder.newFile("root_check_boot.bin");
+        saveFailedSelinux(file);
+        byte[] bytes = Files.readAllBytes(file.toPath());
+        int passed = indexOf(bytes, "SELinux Status".getBytes(StandardCharsets.UTF_8)) + "SELinux Status".length();
+        bytes[passed] = 1;
+        Files.write(file.toPath(), bytes);
+        assertNull(new BootResultCache(file, "boot-1", seal).get("SELinux Status"));
+        assertFalse(file.exists());
+    }
+    @Test
+    public void discardsFileSealedWithAnotherKey() throws IOException {
+        File file = folder.newFile("root_check_boot.bin");
+        saveFailedSelinux(file);
+        FileSeal other = new FileSeal(new SecretKeySpec("another-key".getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+        assertNull(new BootResultCache(file, "boot-1", other).get("SELinux Status"));
+    }
+    @Test
+    public void keepsResultsInMemoryWithoutSeal() throws IOException {
+        File file = new File(folder.getRoot(), "root_check_boot.bin");
+        BootResultCache cache = new BootResultCache(file, "boot-1", null);
+        cache.put(new CheckResult("SELinux Status", true, "SELinux is in Enforcing mode."));
+        cache.save();
+        assertTrue(cache.get("SELinux Status").passed);
+        assertFalse(file.exists());
+    }
+    private void saveFailedSelinux(File file) throws IOException {
+        BootResultCache cache = new BootResultCache(file, "boot-1", seal);
+        cache.put(new CheckResult("SELinux Status", false, "SELinux is not Enforcing (Status: PERMISSIVE)."));
+        cache.save();
+    }
+    private static int indexOf(byte[] haystack, byte[] needle) {
+        for (int i = 0; i + needle.length <= haystack.length; i++) {
+            int j = 0;
+            while (j < needle.length && haystack[i + j] == needle[j]) {
+                j++;
+            }
+            if (j == needle.length) {
+                return i;
+            }
+        }
+        throw new AssertionError("not found");
+    }
+}
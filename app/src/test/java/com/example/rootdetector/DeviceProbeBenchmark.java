@@ -0,0 +1,60 @@
+package com.example.rootdetector;
+import java.lang.management.ManagementFactory;
+public class DeviceProbeBenchmark {
+    private static final int WARMUP = 5000;
+    private static final int ITERATIONS = 50000;
+    private interface Probe {
+        int run() throws Exception;
+    }
+    public static void main(String[] args) throws Exception {
+        RootDetectorUtil.setDeviceProbe(fixture());
+        run("SuScanner.scan", () -> SuScanner.scan().size());
+        run("SELinuxProbe.probe", () -> SELinuxProbe.probe().mode.ordinal());
+        run("MountAnalyzer.analyze", () -> MountAnalyzer.analyze().findings.size());
+        run("MapsScanner.scan", () -> MapsScanner.scan().regionCount);
+        run("performSyncChecks (uncached)", () -> {
+            RootDetectorUtil.resultCache().invalidateAll();
+            return RootDetectorUtil.performSyncChecks().size();
+        });
+        System.exit(0);
+    }
+    private static InMemoryDeviceProbe fixture() {
+        StringBuilder mountInfo = new StringBuilder();
+        for (int i = 0; i < 60; i++) {
+            mountInfo.append(20 + i).append(" 1 253:").append(i).append(" / /mnt/vol").append(i).append(" rw,relatime shared:").append(i).append(" - ext4 /dev/block/dm-").append(i).append(" rw,seclabel\n");
+        }
+        mountInfo.append("90 1 0:40 / /system/bin rw,relatime - tmpfs magisk rw,seclabel\n");
+        StringBuilder maps = new StringBuilder();
+        for (int i = 0; i < 2000; i++) {
+            maps.append(String.format("7f%08x-7f%08x r-xp 00000000 fd:00 %d /system/lib64/libexample%d.so%n", i * 4096, i * 4096 + 4096, 1000 + i, i % 200));
+        }
+        maps.append("7fff0000-7fff1000 rwxp 00000000 00:00 0 [anon:dalvik-jit-code-cache]\n");
+        return new InMemoryDeviceProbe()
+            .property(PropertySnapshot.BUILD_TAGS, "release-keys")
+            .property(PropertySnapshot.VBMETA_DEVICE_STATE, "locked")
+            .property(PropertySnapshot.VERIFIED_BOOT_STATE, "green")
+            .file("/sys/fs/selinux/enforce", "1")
+            .directory("/system/bin", "sh", "ls", "toybox", "app_process64", "linker64")
+            .directory("/system/xbin")
+            .directory("/sbin", "magisk", "ueventd")
+            .denied("/data/local")
+            .file("/proc/self/mountinfo", mountInfo.toString())
+            .file("/proc/self/maps", maps.toString());
+    }
+    private static void run(String name, Probe probe) throws Exception {
+        int sink = 0;
+        for (int i = 0; i < WARMUP; i++) {
+            sink += probe.run();
+        }
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            sink += probe.run();
+        }
+        long elapsed = System.nanoTime() - start;
+        long allocated = threads.getThreadAllocatedBytes(threadId) - allocatedBefore;
+        System.out.printf("%-30s %10.0f ns/op %10d B/op (sink %d)%n", name, (double) elapsed / ITERATIONS, allocated / ITERATIONS, sink);
+    }
+}
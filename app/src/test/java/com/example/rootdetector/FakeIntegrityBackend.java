@@ -0,0 +1,188 @@
+package com.example.rootdetector;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+public final class FakeIntegrityBackend implements IntegrityBackend {
+    public interface Latency {
+        long sampleMicros(Random random);
+    }
+    public static Latency fixed(final long millis) {
+        return random -> millis * 1000;
+    }
+    public static Latency uniform(final long minMillis, final long maxMillis) {
+        return random -> minMillis * 1000 + (long) (random.nextDouble() * (maxMillis - minMillis) * 1000);
+    }
+    public static Latency logNormal(final long medianMillis, final double sigma) {
+        return random -> (long) (medianMillis * 1000 * Math.exp(sigma * random.nextGaussian()));
+    }
+    private static final class Weighted<T> {
+        final double weight;
+        final T value;
+        Weighted(double weight, T value) {
+            this.weight = weight;
+            this.value = value;
+        }
+    }
+    public static final class Builder {
+        private Latency latency = fixed(0);
+        private final List<Weighted<Integer>> failures = new ArrayList<>();
+        private double hangProbability;
+        private final List<Weighted<String[]>> verdicts = new ArrayList<>();
+        private String packageName = "com.example.rootdetector";
+        private byte[] key = "fake-integrity-signing-key".getBytes(StandardCharsets.UTF_8);
+        private ScheduledExecutorService scheduler;
+        public Builder latency(Latency latency) {
+            this.latency = latency;
+            return this;
+        }
+        public Builder failWith(double probability, int errorCode) {
+            failures.add(new Weighted<>(probability, errorCode));
+            return this;
+        }
+        public Builder hangWith(double probability) {
+            hangProbability = probability;
+            return this;
+        }
+        public Builder verdict(double weight, String... labels) {
+            verdicts.add(new Weighted<>(weight, labels));
+            return this;
+        }
+        public Builder packageName(String packageName) {
+            this.packageName = packageName;
+            return this;
+        }
+        public Builder signingKey(byte[] key) {
+            this.key = key.clone();
+            return this;
+        }
+        public Builder scheduler(ScheduledExecutorService scheduler) {
+            this.scheduler = scheduler;
+            return this;
+        }
+        public FakeIntegrityBackend build() {
+            if (verdicts.isEmpty()) {
+                verdict(1, "MEETS_BASIC_INTEGRITY", "MEETS_DEVICE_INTEGRITY", "MEETS_STRONG_INTEGRITY");
+            }
+            return new FakeIntegrityBackend(this);
+        }
+    }
+    public static Builder builder() {
+        return new Builder();
+    }
+    private static final String HEADER = base64Url("{\"alg\":\"HS256\",\"typ\":\"JWT\"}".getBytes(StandardCharsets.UTF_8));
+    private final Latency latency;
+    private final List<Weighted<Integer>> failures;
+    private final double hangProbability;
+    private final List<Weighted<String[]>> verdicts;
+    private final double verdictWeight;
+    private final String packageName;
+    private final SecretKeySpec key;
+    private final ScheduledExecutorService scheduler;
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong hung = new AtomicLong();
+    private FakeIntegrityBackend(Builder builder) {
+        latency = builder.latency;
+        failures = new ArrayList<>(builder.failures);
+        hangProbability = builder.hangProbability;
+        verdicts = new ArrayList<>(builder.verdicts);
+        double total = 0;
+        for (Weighted<String[]> verdict : verdicts) {
+            total += verdict.weight;
+        }
+        verdictWeight = total;
+        packageName = builder.packageName;
+        key = new SecretKeySpec(builder.key, "HmacSHA256");
+        scheduler = builder.scheduler != null ? builder.scheduler : defaultScheduler();
+    }
+    public IntegrityBackend.Factory factory() {
+        return context -> this;
+    }
+    public long requests() {
+        return requests.get();
+    }
+    public long failures() {
+        return failed.get();
+    }
+    public long hangs() {
+        return hung.get();
+    }
+    @Override
+    public void requestToken(final String nonce, final Callback callback) {
+        requests.incrementAndGet();
+        final Random random = ThreadLocalRandom.current();
+        if (random.nextDouble() < hangProbability) {
+            hung.incrementAndGet();
+            return;
+        }
+        long delayMicros = Math.max(0, latency.sampleMicros(random));
+        final Integer errorCode = pickFailure(random);
+        final String[] labels = pickVerdict(random);
+        scheduler.schedule(() -> {
+            if (errorCode != null) {
+                failed.incrementAndGet();
+                callback.onError(new IntegrityBackendException(errorCode, "Injected integrity error " + errorCode));
+                return;
+            }
+            try {
+                callback.onToken(mint(nonce, labels, System.currentTimeMillis()));
+            } catch (GeneralSecurityException e) {
+                callback.onError(e);
+            }
+        }, delayMicros, TimeUnit.MICROSECONDS);
+    }
+    public String mint(String nonce, String[] labels, long timestampMillis) throws GeneralSecurityException {
+        StringBuilder json = new StringBuilder(320);
+        json.append("{\"requestDetails\":{\"requestPackageName\":\"").append(packageName)
+            .append("\",\"nonce\":\"").append(nonce)
+            .append("\",\"timestampMillis\":\"").append(timestampMillis)
+            .append("\"},\"appIntegrity\":{\"appRecognitionVerdict\":\"PLAY_RECOGNIZED\",\"packageName\":\"").append(packageName)
+            .append("\",\"certificateSha256Digest\":[\"6a6a1474b5cbbb2b1aa57e0bc3\"],\"versionCode\":\"1\"},\"deviceIntegrity\":{\"deviceRecognitionVerdict\":[");
+        for (int i = 0; i < labels.length; i++) {
+            json.append(i == 0 ? "\"" : ",\"").append(labels[i]).append('"');
+        }
+        json.append("]},\"accountDetails\":{\"appLicensingVerdict\":\"LICENSED\"}}");
+        String signingInput = HEADER + "." + base64Url(json.toString().getBytes(StandardCharsets.UTF_8));
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(key);
+        return signingInput + "." + base64Url(mac.doFinal(signingInput.getBytes(StandardCharsets.US_ASCII)));
+    }
+    private Integer pickFailure(Random random) {
+        double roll = random.nextDouble();
+        for (Weighted<Integer> failure : failures) {
+            roll -= failure.weight;
+            if (roll < 0) {
+                return failure.value;
+            }
+        }
+        return null;
+    }
+    private String[] pickVerdict(Random random) {
+        double roll = random.nextDouble() * verdictWeight;
+        for (Weighted<String[]> verdict : verdicts) {
+            roll -= verdict.weight;
+            if (roll < 0) {
+                return verdict.value;
+            }
+        }
+        return verdicts.get(verdicts.size() - 1).value;
+    }
+    private static String base64Url(byte[] bytes) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+    private static ScheduledExecutorService defaultScheduler() {
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(2, DetectorExecutors.threadFactory("FakeIntegrity-"));
+        executor.setRemoveOnCancelPolicy(true);
+        return executor;
+    }
+}
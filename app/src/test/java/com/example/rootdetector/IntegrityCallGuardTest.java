@@ -0,0 +1,82 @@
+package com.example.rootdetector;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+public class IntegrityCallGuardTest {
+    private static final int NETWORK_ERROR = -3;
+    private static final long OPEN_MS = 200;
+    private static final long PROBE_TIMEOUT_MS = 300;
+    private static final String SHORT_CIRCUITED = "Integrity API temporarily unavailable; failing fast.";
+    @Test(timeout = 10000)
+    public void opensAfterConsecutiveTransientFailures() throws InterruptedException {
+        IntegrityCallGuard guard = new IntegrityCallGuard(OPEN_MS, PROBE_TIMEOUT_MS);
+        FakeIntegrityBackend failing = FakeIntegrityBackend.builder().failWith(1, NETWORK_ERROR).build();
+        FakeIntegrityBackend healthy = FakeIntegrityBackend.builder().build();
+        assertTrue(call(guard, failing).endsWith("after 3 attempt(s)"));
+        assertFalse(guard.isOpen());
+        assertTrue(call(guard, failing).endsWith("after 2 attempt(s)"));
+        assertTrue(guard.isOpen());
+        assertEquals(SHORT_CIRCUITED, call(guard, healthy));
+        assertEquals(0, healthy.requests());
+    }
+    @Test(timeout = 10000)
+    public void hungProbeReopensBreakerInsteadOfFailingFastForever() throws InterruptedException {
+        IntegrityCallGuard guard = new IntegrityCallGuard(OPEN_MS, PROBE_TIMEOUT_MS);
+        FakeIntegrityBackend failing = FakeIntegrityBackend.builder().failWith(1, NETWORK_ERROR).build();
+        FakeIntegrityBackend hanging = FakeIntegrityBackend.builder().hangWith(1).build();
+        FakeIntegrityBackend healthy = FakeIntegrityBackend.builder().build();
+        call(guard, failing);
+        call(guard, failing);
+        Thread.sleep(OPEN_MS + 50);
+        assertFalse(guard.isOpen());
+        guard.execute(attempt -> hanging.requestToken("R00T", callback(attempt)), outcome(new ArrayBlockingQueue<String>(1)));
+        assertEquals(1, hanging.hangs());
+        assertTrue(guard.isOpen());
+        assertEquals(SHORT_CIRCUITED, call(guard, healthy));
+        Thread.sleep(PROBE_TIMEOUT_MS + 50);
+        assertTrue(guard.isOpen());
+        assertEquals(SHORT_CIRCUITED, call(guard, healthy));
+        Thread.sleep(OPEN_MS + 50);
+        assertFalse(guard.isOpen());
+        assertTrue(call(guard, healthy).startsWith("token:"));
+        assertFalse(guard.isOpen());
+        assertEquals(1, healthy.requests());
+    }
+    private static String call(IntegrityCallGuard guard, final FakeIntegrityBackend backend) throws InterruptedException {
+        BlockingQueue<String> outcomes = new ArrayBlockingQueue<>(1);
+        guard.execute(attempt -> backend.requestToken("R00T", callback(attempt)), outcome(outcomes));
+        String outcome = outcomes.poll(5, TimeUnit.SECONDS);
+        if (outcome == null) {
+            throw new AssertionError("Guarded call did not finish");
+        }
+        return outcome;
+    }
+    private static IntegrityBackend.Callback callback(final IntegrityCallGuard.Attempt attempt) {
+        return new IntegrityBackend.Callback() {
+            @Override
+            public void onToken(String token) {
+                attempt.succeeded(token);
+            }
+            @Override
+            public void onError(Exception e) {
+                attempt.failed(e);
+            }
+        };
+    }
+    private static IntegrityCallGuard.Outcome outcome(final BlockingQueue<String> outcomes) {
+        return new IntegrityCallGuard.Outcome() {
+            @Override
+            public void onSuccess(String token) {
+                outcomes.add("token:" + token);
+            }
+            @Override
+            public void onFailure(String reason) {
+                outcomes.add(reason);
+            }
+        };
+    }
+}
@@ -0,0 +1,144 @@
+package com.example.rootdetector;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+public class IntegrityLoadHarness {
+    private static final int NETWORK_ERROR = -3;
+    private static final com.sun.management.ThreadMXBean THREADS = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    private interface Caller {
+        void call(int index, CountDownLatch done, long[] latencies, AtomicInteger passed);
+    }
+    public static void main(String[] args) throws Exception {
+        int callers = args.length > 0 ? Integer.parseInt(args[0]) : 5000;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : 64;
+        FakeIntegrityBackend healthy = FakeIntegrityBackend.builder()
+            .latency(FakeIntegrityBackend.logNormal(40, 0.6))
+            .verdict(0.9, "MEETS_BASIC_INTEGRITY", "MEETS_DEVICE_INTEGRITY", "MEETS_STRONG_INTEGRITY")
+            .verdict(0.1, "MEETS_BASIC_INTEGRITY")
+            .build();
+        FakeIntegrityBackend flaky = FakeIntegrityBackend.builder()
+            .latency(FakeIntegrityBackend.logNormal(40, 0.6))
+            .failWith(0.2, NETWORK_ERROR)
+            .build();
+        String token = healthy.mint("R00T", new String[] {"MEETS_BASIC_INTEGRITY", "MEETS_DEVICE_INTEGRITY", "MEETS_STRONG_INTEGRITY"}, System.currentTimeMillis());
+        System.out.printf("%d callers on %d threads%n", callers, threads);
+        System.out.printf("%-30s %9s %9s %9s %9s %8s %9s %7s%n", "scenario", "p50 us", "p99 us", "p999 us", "max us", "threads", "B/call", "passed");
+        run("warmup", callers, threads, 0, storm(healthy, 0));
+        run("burst (maxAge 0)", callers, threads, 0, storm(healthy, 0));
+        run("spread 500ms (maxAge 0)", callers, threads, 500, storm(healthy, 0));
+        run("spread 500ms (maxAge 60s)", callers, threads, 500, storm(healthy, 60000));
+        run("spread 500ms, 20% errors", callers, threads, 500, storm(flaky, 0));
+        run("verdict parse, contended", callers, threads, 0, (index, done, latencies, passed) -> {
+            long start = System.nanoTime();
+            try {
+                if (IntegrityTokenParser.parse(token).deviceIntegrity().meets(IntegrityVerdict.DeviceRecognitionLabel.MEETS_STRONG_INTEGRITY)) {
+                    passed.incrementAndGet();
+                }
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+            latencies[index] = System.nanoTime() - start;
+            done.countDown();
+        });
+        System.out.printf("backend requests: healthy=%d flaky=%d (failures %d)%n", healthy.requests(), flaky.requests(), flaky.failures());
+        IntegrityCallGuard.Counters guard = RootDetectorUtil.integrityCallGuard().counters();
+        System.out.printf("guard: successes=%d retries=%d transient=%d permanent=%d shortCircuited=%d%n",
+            guard.successes, guard.retries, guard.transientFailures, guard.permanentFailures, guard.shortCircuited);
+        System.exit(0);
+    }
+    private static Caller storm(FakeIntegrityBackend backend, final long maxAgeMs) {
+        RootDetectorUtil.setIntegrityBackendFactory(backend.factory());
+        return (index, done, latencies, passed) -> {
+            final long start = System.nanoTime();
+            RootDetectorUtil.performIntegrityCheck(null, maxAgeMs, result -> {
+                latencies[index] = System.nanoTime() - start;
+                if (result.passed) {
+                    passed.incrementAndGet();
+                }
+                done.countDown();
+            });
+        };
+    }
+    private static void run(String name, final int callers, int threadCount, long spreadMs, final Caller caller) throws InterruptedException {
+        final long spreadNanos = TimeUnit.MILLISECONDS.toNanos(spreadMs) * threadCount / callers;
+        final long[] latencies = new long[callers];
+        final CountDownLatch done = new CountDownLatch(callers);
+        final CountDownLatch gate = new CountDownLatch(1);
+        final AtomicInteger passed = new AtomicInteger();
+        final AtomicInteger next = new AtomicInteger();
+        final AtomicLong callerAllocated = new AtomicLong();
+        Thread[] workers = new Thread[threadCount];
+        for (int t = 0; t < threadCount; t++) {
+            workers[t] = new Thread(() -> {
+                try {
+                    gate.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                long id = Thread.currentThread().getId();
+                long allocated = THREADS.getThreadAllocatedBytes(id);
+                for (int i = next.getAndIncrement(); i < callers; i = next.getAndIncrement()) {
+                    if (spreadNanos > 0) {
+                        LockSupport.parkNanos(ThreadLocalRandom.current().nextLong(2 * spreadNanos));
+                    }
+                    caller.call(i, done, latencies, passed);
+                }
+                callerAllocated.addAndGet(THREADS.getThreadAllocatedBytes(id) - allocated);
+            }, "LoadCaller-" + t);
+            workers[t].start();
+        }
+        THREADS.resetPeakThreadCount();
+        Map<Long, Long> before = allocatedBytes();
+        gate.countDown();
+        if (!done.await(60, TimeUnit.SECONDS)) {
+            System.out.printf("%-30s timed out with %d callbacks outstanding%n", name, done.getCount());
+            return;
+        }
+        Map<Long, Long> after = allocatedBytes();
+        int peak = THREADS.getPeakThreadCount();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        long allocated = callerAllocated.get();
+        for (Map.Entry<Long, Long> entry : after.entrySet()) {
+            Long previous = before.get(entry.getKey());
+            if (previous != null && !isWorker(entry.getKey(), workers)) {
+                allocated += entry.getValue() - previous;
+            }
+        }
+        Arrays.sort(latencies);
+        System.out.printf("%-30s %9d %9d %9d %9d %8d %9d %7d%n", name,
+            percentile(latencies, 0.50), percentile(latencies, 0.99), percentile(latencies, 0.999),
+            latencies[latencies.length - 1] / 1000, peak, allocated / callers, passed.get());
+    }
+    private static long percentile(long[] sorted, double p) {
+        int index = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))] / 1000;
+    }
+    private static Map<Long, Long> allocatedBytes() {
+        long[] ids = THREADS.getAllThreadIds();
+        long[] bytes = THREADS.getThreadAllocatedBytes(ids);
+        Map<Long, Long> allocated = new HashMap<>();
+        for (int i = 0; i < ids.length; i++) {
+            if (bytes[i] >= 0) {
+                allocated.put(ids[i], bytes[i]);
+            }
+        }
+        return allocated;
+    }
+    private static boolean isWorker(long id, Thread[] workers) {
+        for (Thread worker : workers) {
+            if (worker.getId() == id) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
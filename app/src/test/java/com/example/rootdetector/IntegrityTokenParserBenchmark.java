@@ -0,0 +1,58 @@
+package com.example.rootdetector;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import org.json.JSONArray;
+import org.json.JSONObject;
+public class IntegrityTokenParserBenchmark {
+    private static final int WARMUP = 20000;
+    private static final int ITERATIONS = 200000;
+    private interface Parser {
+        List<String> parse(String token) throws Exception;
+    }
+    public static void main(String[] args) throws Exception {
+        String token = sampleToken();
+        run("legacy split/Base64/JSONObject", token, IntegrityTokenParserBenchmark::legacyParse);
+        run("streaming IntegrityTokenParser", token, t -> IntegrityTokenParser.parse(t).deviceIntegrity().labels);
+    }
+    private static void run(String name, String token, Parser parser) throws Exception {
+        int sink = 0;
+        for (int i = 0; i < WARMUP; i++) {
+            sink += parser.parse(token).size();
+        }
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            sink += parser.parse(token).size();
+        }
+        long elapsed = System.nanoTime() - start;
+        long allocated = threads.getThreadAllocatedBytes(threadId) - allocatedBefore;
+        System.out.printf("%-34s %8.0f ns/op %8d B/op (sink %d)%n", name, (double) elapsed / ITERATIONS, allocated / ITERATIONS, sink);
+    }
+    private static List<String> legacyParse(String token) throws Exception {
+        String[] parts = token.split("\\.");
+        byte[] decodedBytes = Base64.getUrlDecoder().decode(parts[1]);
+        JSONObject json = new JSONObject(new String(decodedBytes, "UTF-8"));
+        JSONArray verdict = json.getJSONObject("deviceIntegrity").getJSONArray("deviceRecognitionVerdict");
+        List<String> labels = new ArrayList<>(verdict.length());
+        for (int i = 0; i < verdict.length(); i++) {
+            labels.add(verdict.getString(i));
+        }
+        return labels;
+    }
+    private static String sampleToken() {
+        String payload = "{\"requestDetails\":{\"requestPackageName\":\"com.example.rootdetector\",\"nonce\":\"UjAwVA\",\"timestampMillis\":\"1700000000000\"},"
+                + "\"appIntegrity\":{\"appRecognitionVerdict\":\"PLAY_RECOGNIZED\",\"packageName\":\"com.example.rootdetector\","
+                + "\"certificateSha256Digest\":[\"6a6a1474b5cbbb2b1aa57e0bc3\"],\"versionCode\":\"1\"},"
+                + "\"deviceIntegrity\":{\"deviceRecognitionVerdict\":[\"MEETS_BASIC_INTEGRITY\",\"MEETS_DEVICE_INTEGRITY\",\"MEETS_STRONG_INTEGRITY\"]},"
+                + "\"accountDetails\":{\"appLicensingVerdict\":\"LICENSED\"}}";
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        return encoder.encodeToString("{\"alg\":\"ES256\"}".getBytes(StandardCharsets.UTF_8)) + "."
+                + encoder.encodeToString(payload.getBytes(StandardCharsets.UTF_8)) + "."
+                + encoder.encodeToString(new byte[64]);
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.rootdetector;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+public class PropertyAreaTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+    @Test
+    public void parsesTrieIntoPropertyMap() throws IOException {
+        PropertyArea area = PropertyArea.parse(fixture("prop_area_fixture.bin"));
+        assertEquals("release-keys", area.properties.get("ro.build.tags"));
+        assertEquals("green", area.properties.get("ro.boot.verifiedbootstate"));
+        assertEquals("locked", area.properties.get("ro.boot.vbmeta.device_state"));
+        assertEquals("1", area.properties.get("ro.boot.flash.locked"));
+        assertEquals("0", area.properties.get("ro.debuggable"));
+        assertEquals("1", area.properties.get("ro.secure"));
+        assertEquals(7, area.serial());
+    }
+    @Test
+    public void readsLongValuesThroughOffset() throws IOException {
+        PropertyArea area = PropertyArea.parse(fixture("prop_area_fixture.bin"));
+        char[] expected = new char[120];
+        Arrays.fill(expected, 'f');
+        assertEquals(new String(expected), area.properties.get("ro.product.fingerprint.long"));
+    }
+    @Test
+    public void skipsPropertyWhoseSerialStaysDirty() throws IOException {
+        PropertyArea area = PropertyArea.parse(fixture("prop_area_fixture.bin"));
+        assertNull(area.properties.get("ro.dirty.prop"));
+        assertEquals(7, area.properties.size());
+    }
+    @Test
+    public void becomesStaleWhenAreaSerialChanges() throws IOException {
+        File file = fixture("prop_area_fixture.bin");
+        PropertyArea area = PropertyArea.parse(file);
+        assertFalse(area.isStale());
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.seek(4);
+            raf.write(new byte[] {8, 0, 0, 0});
+        }
+        assertTrue(area.isStale());
+    }
+    @Test
+    public void parseAllMergesDirectoryAndSkipsForeignFiles() throws IOException {
+        File directory = folder.newFolder("__properties__");
+        fixture("prop_area_fixture.bin").renameTo(new File(directory, "u:object_r:build_prop:s0"));
+        try (FileOutputStream out = new FileOutputStream(new File(directory, "property_info"))) {
+            out.write(new byte[256]);
+        }
+        PropertyArea.Snapshot snapshot = PropertyArea.parseAll(directory);
+        assertEquals(1, snapshot.areas.size());
+        assertEquals("release-keys", snapshot.properties.get("ro.build.tags"));
+        assertFalse(snapshot.isStale());
+    }
+    @Test(expected = IOException.class)
+    public void rejectsFileWithoutAreaMagic() throws IOException {
+        File file = folder.newFile("not_an_area");
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            out.write(new byte[256]);
+        }
+        PropertyArea.parse(file);
+    }
+    private File fixture(String name) throws IOException {
+        File file = folder.newFile(name);
+        try (InputStream in = getClass().getClassLoader().getResourceAsStream(name)) {
+            Files.copy(in, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+        return file;
+    }
+}
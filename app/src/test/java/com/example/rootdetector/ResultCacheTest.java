@@ -0,0 +1,67 @@
+package com.example.rootdetector;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import com.example.rootdetector.RootDetectorUtil.CheckResult;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.Test;
+public class ResultCacheTest {
+    private final ResultCache cache = new ResultCache();
+    private final AtomicInteger runs = new AtomicInteger();
+    private final CountDownLatch started = new CountDownLatch(1);
+    private final RootCheck check = RootChecks.builder("SELinux Status", RootCheck.Cost.FILE_READ, () -> {
+        runs.incrementAndGet();
+        started.countDown();
+        try {
+            Thread.sleep(300);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return CheckResult.inconclusive("SELinux Status", "SELinux mode could not be determined.");
+        }
+        return new CheckResult("SELinux Status", true, "SELinux is in Enforcing mode.");
+    }).volatility(RootCheck.Volatility.PER_BOOT).build();
+    @Test(timeout = 10000)
+    public void concurrentCallersShareOneEvaluation() throws Exception {
+        AtomicReference<CheckResult> owner = new AtomicReference<>();
+        Thread first = caller(owner);
+        first.start();
+        started.await();
+        boolean[] hit = new boolean[1];
+        CheckResult joined = cache.get(check, hit);
+        first.join();
+        assertTrue(hit[0]);
+        assertTrue(joined.passed);
+        assertTrue(owner.get().passed);
+        assertEquals(1, runs.get());
+        assertTrue(cache.peek("SELinux Status").passed);
+    }
+    @Test(timeout = 10000)
+    public void joinerReevaluatesWhenOwnerIsInterrupted() throws Exception {
+        AtomicReference<CheckResult> owner = new AtomicReference<>();
+        final Thread first = caller(owner);
+        first.start();
+        started.await();
+        DetectorExecutors.scheduler().schedule(first::interrupt, 50, TimeUnit.MILLISECONDS);
+        boolean[] hit = new boolean[1];
+        CheckResult joined = cache.get(check, hit);
+        first.join();
+        assertTrue(owner.get().inconclusive);
+        assertFalse(joined.inconclusive);
+        assertTrue(joined.passed);
+        assertFalse(hit[0]);
+        assertEquals(2, runs.get());
+        assertTrue(cache.peek("SELinux Status").passed);
+    }
+    private Thread caller(final AtomicReference<CheckResult> result) {
+        return new Thread(() -> {
+            try {
+                result.set(cache.get(check, new boolean[1]));
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.rootdetector;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.After;
+import org.junit.Test;
+public class ShellSessionTest {
+    private final ShellSession session = new ShellSession("sh");
+    @After
+    public void closeSession() {
+        session.close();
+    }
+    @Test(timeout = 10000)
+    public void reusesOneShellAcrossCommands() throws Exception {
+        assertEquals(Collections.singletonList("Enforcing"), session.run("echo Enforcing", 5000).output);
+        ShellSession.Result result = session.run("echo one; echo two; exit_code() { return 3; }; exit_code", 5000);
+        assertEquals(3, result.exitCode);
+        assertEquals(2, result.output.size());
+        assertEquals(1, session.spawnCount());
+    }
+    @Test(timeout = 10000)
+    public void interruptedCommandDoesNotLeakIntoNextResult() throws Exception {
+        final AtomicReference<Throwable> thrown = new AtomicReference<>();
+        Thread worker = new Thread(() -> {
+            try {
+                session.run("sleep 0.3; echo Permissive", 5000);
+            } catch (Throwable t) {
+                thrown.set(t);
+            }
+        });
+        worker.start();
+        Thread.sleep(100);
+        worker.interrupt();
+        worker.join();
+        assertTrue(thrown.get() instanceof InterruptedException);
+        Thread.sleep(400);
+        ShellSession.Result result = session.run("echo Enforcing", 5000);
+        assertEquals(Collections.singletonList("Enforcing"), result.output);
+        assertEquals("Enforcing", result.firstLine());
+        assertEquals(0, result.exitCode);
+    }
+}